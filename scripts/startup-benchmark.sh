@@ -0,0 +1,37 @@
+#!/bin/sh
+# Startup benchmark run by `mvn -Pstartup verify`.
+# Times how long the JVM takes to refresh the application context and exit, with and without AOT + CDS,
+# and prints the median of each so regressions show up in the build log.
+#
+# Usage: startup-benchmark.sh <jar> <cds archive> <runs> "<extra jvm args>"
+set -e
+
+JAR="$1"
+ARCHIVE="$2"
+RUNS="${3:-5}"
+ARGS="$4"
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Prints the median wall time in milliseconds of RUNS launches with the given JVM flags
+measure() {
+    times=""
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        start=$(now_ms)
+        # shellcheck disable=SC2086
+        java $1 $ARGS -jar "$JAR" > /dev/null 2>&1
+        times="$times $(( $(now_ms) - start ))"
+        i=$((i + 1))
+    done
+    echo $times | tr ' ' '\n' | sort -n | awk '{ t[NR] = $1 } END { print t[int((NR + 1) / 2)] }'
+}
+
+baseline=$(measure "")
+optimised=$(measure "-XX:SharedArchiveFile=$ARCHIVE -Dspring.aot.enabled=true")
+
+echo "Startup benchmark, median of $RUNS runs until the context is refreshed:"
+echo "  plain jar:  ${baseline} ms"
+echo "  AOT + CDS:  ${optimised} ms"
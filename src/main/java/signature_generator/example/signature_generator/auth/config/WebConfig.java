@@ -13,7 +13,7 @@ public class WebConfig implements WebMvcConfigurer {
         // Restrict CORS to only the /api/auth/** paths
         registry.addMapping("/api/**")
                 .allowedOrigins("http://localhost:8081")
-                .allowedMethods("GET", "POST", "PUT", "DELETE")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE")
                 .allowCredentials(true)
                 .allowedHeaders("*");
     }
@@ -1,11 +1,14 @@
 package signature_generator.example.signature_generator.auth.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import signature_generator.example.signature_generator.auth.model.User;
 import signature_generator.example.signature_generator.auth.service.JwtService;
+import signature_generator.example.signature_generator.auth.service.SessionService;
 import signature_generator.example.signature_generator.auth.service.UserService;
 import signature_generator.example.signature_generator.auth.service.EmailService;
+import signature_generator.example.signature_generator.auth.service.VerificationLinkService;
 import signature_generator.example.signature_generator.auth.util.JwtUtil;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +32,12 @@ public class AuthController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private VerificationLinkService verificationLinkService;
+
+    @Autowired
+    private SessionService sessionService;
+
     @PostMapping("/signup")
     public ResponseEntity<?> register(@RequestBody User user) {
         try {
@@ -41,7 +50,7 @@ public class AuthController {
             );
 
             // Generate verification URL
-            String verificationUrl = "http://signaturegenerator.samueldev.com/api/auth/verify?token=" + registeredUser.getVerificationToken();
+            String verificationUrl = verificationLinkService.createLink(registeredUser.getId());
 
             // Send verification email
             emailService.sendEmail(
@@ -70,7 +79,11 @@ public class AuthController {
     // Email Verification
     @GetMapping("/verify")
     public ResponseEntity<?> verifyEmail(@RequestParam("token") String token) {
-        // Fetch user by verification token
+        if (verificationLinkService.isSignedToken(token)) {
+            return verifySignedToken(token);
+        }
+
+        // Legacy links issued before signed tokens: fetch user by stored verification token
         User user = userService.findByVerificationToken(token);
 
         // If user is not found or token is invalid
@@ -92,6 +105,21 @@ public class AuthController {
         return ResponseEntity.ok("Email verified successfully!");
     }
 
+    // Checked in memory, then a single UPDATE; no lookup of the user row
+    private ResponseEntity<?> verifySignedToken(String token) {
+        VerificationLinkService.SignedVerification verification = verificationLinkService.parse(token);
+        if (verification == null) {
+            return ResponseEntity.badRequest().body("Invalid verification token");
+        }
+        if (verification.isExpired()) {
+            return ResponseEntity.badRequest().body("Verification token has expired. Please request a new one.");
+        }
+        if (!userService.markVerified(verification.userId())) {
+            return ResponseEntity.badRequest().body("Invalid verification token");
+        }
+        return ResponseEntity.ok("Email verified successfully!");
+    }
+
     // User Login
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody User user) {
@@ -122,8 +150,19 @@ public class AuthController {
             return ResponseEntity.status(401).body(errorResponse);
         }
 
-        // Generate JWT token for the authenticated user
-        String token = jwtService.buildToken(loggedInUser.getUsername(), loggedInUser.getId());
+        // Opaque session token when sessions are enabled, otherwise a JWT for the authenticated user
+        String token;
+        try {
+            token = sessionService.isEnabled()
+                    ? sessionService.issue(loggedInUser.getId())
+                    : jwtService.buildToken(loggedInUser.getUsername(), loggedInUser.getId());
+        } catch (IllegalStateException e) {
+            // Every session slot holds a live session; slots free up as sessions expire or log out
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Too many active sessions, try again shortly");
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5").body(errorResponse);
+        }
 
         // Build the successful login response
         Map<String, Object> response = new HashMap<>();
@@ -138,17 +177,27 @@ public class AuthController {
 
     @PostMapping("/logout")
     public ResponseEntity<Map<String, Object>> logout(HttpServletRequest request) {
-        // The client is responsible for deleting the token on their end (local storage, cookies, etc.)
+        // Invalidate the presented token server-side: a slot release for sessions, a revocation entry for JWTs
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            if (sessionService.isSessionToken(token)) {
+                // False means no live session matched, so there was nothing this request could log out
+                if (!sessionService.invalidate(token)) {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", false);
+                    response.put("message", "Session not found or already ended.");
+                    return ResponseEntity.status(401).body(response);
+                }
+            } else {
+                jwtService.revoke(token);
+            }
+        }
 
-        // We can send a message confirming that the user has logged out.
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
-        response.put("message", "Logged out successfully. Please delete the JWT token on your end.");
-
-        // In case you use any session-based storage (e.g., Redis or database), you could also invalidate the session here.
+        response.put("message", "Logged out successfully.");
 
         return ResponseEntity.ok(response);
     }
-
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,123 @@
+package signature_generator.example.signature_generator.auth.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import signature_generator.example.signature_generator.auth.model.Company;
+import signature_generator.example.signature_generator.auth.model.Permission;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.service.CompanyService;
+import signature_generator.example.signature_generator.signature.service.LogoService;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/companies")
+public class CompanyController {
+    private final CompanyService companyService;
+    private final LogoService logoService;
+
+    @GetMapping("/{companyId}")
+    public ResponseEntity<?> getCompany(@PathVariable("companyId") Long companyId) {
+        Company company = companyService.findById(companyId);
+
+        if (company == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Company not found");
+        }
+        return ResponseEntity.ok(company);
+    }
+
+    @PutMapping("/{companyId}/branding")
+    public ResponseEntity<?> updateBranding(@AuthenticationPrincipal User loggedInUser,
+                                            @PathVariable("companyId") Long companyId,
+                                            @RequestBody Map<String, String> branding) {
+        // Branding is shared by every member, so only admins may change it
+        if (!canManageBranding(loggedInUser)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can update company branding");
+        }
+
+        try {
+            Company company = companyService.updateBranding(companyId, branding.get("missionStatement"),
+                    branding.get("companyAddress"), branding.get("companySite"));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Company branding updated successfully");
+            response.put("version", company.getVersion());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/{companyId}")
+    public ResponseEntity<?> patchBranding(@AuthenticationPrincipal User loggedInUser,
+                                           @PathVariable("companyId") Long companyId,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestBody Map<String, String> changes) {
+        if (!canManageBranding(loggedInUser)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can update company branding");
+        }
+
+        try {
+            companyService.patchBranding(companyId, changes, VersionHeaders.parseIfMatch(ifMatch));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Company branding updated successfully");
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // Variants are produced in the background; the company switches to them once all are written
+    @PostMapping(value = "/{companyId}/logo", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadLogo(@AuthenticationPrincipal User loggedInUser,
+                                        @PathVariable("companyId") Long companyId,
+                                        @RequestParam("file") MultipartFile file) {
+        if (!canManageBranding(loggedInUser)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can update company branding");
+        }
+
+        try {
+            String logoHash = logoService.upload(companyId, file.getBytes());
+
+            Map<String, String> variants = new LinkedHashMap<>();
+            for (int size : LogoService.VARIANT_SIZES) {
+                variants.put(String.valueOf(size), "/assets/logos/" + LogoService.variantName(logoHash, size));
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Logo accepted, variants are being generated");
+            response.put("logoHash", logoHash);
+            response.put("variants", variants);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Could not read the uploaded file");
+        }
+    }
+
+    private static boolean canManageBranding(User user) {
+        return user != null && user.hasPermission(Permission.MANAGE_COMPANY_BRANDING);
+    }
+}
@@ -0,0 +1,140 @@
+package signature_generator.example.signature_generator.auth.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import signature_generator.example.signature_generator.auth.model.Permission;
+import signature_generator.example.signature_generator.auth.model.ProfileRevision;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.service.CompanyService;
+import signature_generator.example.signature_generator.auth.service.ProfileHistoryService;
+import signature_generator.example.signature_generator.auth.service.UserService;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Saved revisions of a user's signature fields and of a company's branding, and rollback to any of them
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/history")
+public class HistoryController {
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ProfileHistoryService profileHistoryService;
+    private final UserService userService;
+    private final CompanyService companyService;
+
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<?> getUserHistory(@AuthenticationPrincipal User loggedInUser,
+                                            @PathVariable("userId") Long userId,
+                                            @RequestParam(value = "page", defaultValue = "0") int page,
+                                            @RequestParam(value = "size", defaultValue = "50") int size) {
+        if (!canManageUser(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to view this history");
+        }
+        return listing(ProfileRevision.Subject.USER, userId, page, size);
+    }
+
+    @GetMapping("/users/{userId}/{revision}")
+    public ResponseEntity<?> getUserRevision(@AuthenticationPrincipal User loggedInUser,
+                                             @PathVariable("userId") Long userId,
+                                             @PathVariable("revision") int revision) {
+        if (!canManageUser(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to view this history");
+        }
+        return revision(ProfileRevision.Subject.USER, userId, revision);
+    }
+
+    @PostMapping("/users/{userId}/{revision}/rollback")
+    public ResponseEntity<?> rollbackUser(@AuthenticationPrincipal User loggedInUser,
+                                          @PathVariable("userId") Long userId,
+                                          @PathVariable("revision") int revision) {
+        if (!canManageUser(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to change this profile");
+        }
+
+        try {
+            userService.rollbackProfile(userId, revision);
+            return rolledBack(revision);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/companies/{companyId}")
+    public ResponseEntity<?> getCompanyHistory(@AuthenticationPrincipal User loggedInUser,
+                                               @PathVariable("companyId") Long companyId,
+                                               @RequestParam(value = "page", defaultValue = "0") int page,
+                                               @RequestParam(value = "size", defaultValue = "50") int size) {
+        if (!canManageBranding(loggedInUser)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can view company history");
+        }
+        return listing(ProfileRevision.Subject.COMPANY, companyId, page, size);
+    }
+
+    @GetMapping("/companies/{companyId}/{revision}")
+    public ResponseEntity<?> getCompanyRevision(@AuthenticationPrincipal User loggedInUser,
+                                                @PathVariable("companyId") Long companyId,
+                                                @PathVariable("revision") int revision) {
+        if (!canManageBranding(loggedInUser)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can view company history");
+        }
+        return revision(ProfileRevision.Subject.COMPANY, companyId, revision);
+    }
+
+    // Branding is shared by every member, so only admins may roll it back
+    @PostMapping("/companies/{companyId}/{revision}/rollback")
+    public ResponseEntity<?> rollbackCompany(@AuthenticationPrincipal User loggedInUser,
+                                             @PathVariable("companyId") Long companyId,
+                                             @PathVariable("revision") int revision) {
+        if (!canManageBranding(loggedInUser)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can update company branding");
+        }
+
+        try {
+            companyService.rollbackBranding(companyId, revision);
+            return rolledBack(revision);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> listing(ProfileRevision.Subject subject, Long subjectId, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("page must be at least 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(profileHistoryService.history(subject, subjectId, page, size));
+    }
+
+    private ResponseEntity<?> revision(ProfileRevision.Subject subject, Long subjectId, int revision) {
+        try {
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("revision", revision);
+            response.put("fields", profileHistoryService.reconstruct(subject, subjectId, revision));
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> rolledBack(int revision) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Restored revision " + revision);
+        return ResponseEntity.ok(response);
+    }
+
+    private static boolean canManageUser(User user, Long userId) {
+        return user != null && (user.getId().equals(userId) || user.hasPermission(Permission.VIEW_ALL_USERS));
+    }
+
+    private static boolean canManageBranding(User user) {
+        return user != null && user.hasPermission(Permission.MANAGE_COMPANY_BRANDING);
+    }
+}
@@ -2,12 +2,17 @@ package signature_generator.example.signature_generator.auth.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import signature_generator.example.signature_generator.auth.model.Permission;
 import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.model.UserProfile;
+import signature_generator.example.signature_generator.auth.service.UserSearchIndex;
 import signature_generator.example.signature_generator.auth.service.UserService;
 
 import java.util.HashMap;
@@ -18,7 +23,10 @@ import java.util.Map;
 @RequiredArgsConstructor
 @RequestMapping("/api/v1")
 public class UserController {
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final UserService userService;
+    private final UserSearchIndex userSearchIndex;
 
     @PutMapping("/update-phone")
     public ResponseEntity<?> updatePhone(@RequestParam("userId") Long userId, @RequestBody Map<String, String> phoneRequest) {
@@ -50,8 +58,13 @@ public class UserController {
     }
 
     @PutMapping("/update-company-info")
-    public ResponseEntity<?> updateCompanyInfo(@RequestParam("userId") Long userId,
+    public ResponseEntity<?> updateCompanyInfo(@AuthenticationPrincipal User loggedInUser,
+                                               @RequestParam("userId") Long userId,
                                                @RequestBody Map<String, String> companyInfo) {
+        if (!canView(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to update this user");
+        }
+
         // Get the company info from the request body
         String companyName = companyInfo.get("companyName");
         String missionStatement = companyInfo.get("missionStatement");
@@ -59,8 +72,14 @@ public class UserController {
         String companySite = companyInfo.get("companySite");
         String userTitle = companyInfo.get("userTitle");
 
+        // Branding is shared by every member of the company, so only admins may change it here
+        boolean changesBranding = missionStatement != null || companyAddress != null || companySite != null;
+        if (changesBranding && !loggedInUser.hasPermission(Permission.MANAGE_COMPANY_BRANDING)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can update company branding");
+        }
+
         try {
-            User updatedUser = userService.updateUserCompanyInfo(userId, companyName, missionStatement,
+            UserProfile updatedProfile = userService.updateUserCompanyInfo(userId, companyName, missionStatement,
                     companyAddress, companySite, userTitle);
 
             return ResponseEntity.ok("Company information updated successfully");
@@ -70,11 +89,77 @@ public class UserController {
         }
     }
 
+    @PatchMapping("/users/{userId}")
+    public ResponseEntity<?> patchUser(@AuthenticationPrincipal User loggedInUser,
+                                       @PathVariable("userId") Long userId,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                       @RequestBody Map<String, String> changes) {
+        if (!canView(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to update this user");
+        }
+
+        try {
+            userService.patchUser(userId, changes, VersionHeaders.parseIfMatch(ifMatch));
+            return patched("User updated successfully");
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/users/{userId}/profile")
+    public ResponseEntity<?> patchProfile(@AuthenticationPrincipal User loggedInUser,
+                                          @PathVariable("userId") Long userId,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @RequestBody Map<String, String> changes) {
+        if (!canView(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to update this user");
+        }
+
+        try {
+            userService.patchProfile(userId, changes, VersionHeaders.parseIfMatch(ifMatch));
+            return patched("Profile updated successfully");
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    private static boolean canView(User user, Long userId) {
+        return user != null && (user.getId().equals(userId) || user.hasPermission(Permission.VIEW_ALL_USERS));
+    }
+
+    private static ResponseEntity<Map<String, Object>> patched(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", message);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/profile")
+    public ResponseEntity<?> getProfile(@AuthenticationPrincipal User loggedInUser,
+                                        @RequestParam("userId") Long userId) {
+        if (!canView(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to view this profile");
+        }
+
+        UserProfile profile = userService.findProfile(userId);
+
+        // Users who never saved company info have no profile row yet
+        if (profile == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Profile not found");
+        }
+        return ResponseEntity.ok(profile);
+    }
+
     @GetMapping("/users")
     public ResponseEntity<?> getAllUsers(@AuthenticationPrincipal User loggedInUser) {
         System.out.println(loggedInUser);
-        if (loggedInUser != null && loggedInUser.getAuthorities().stream()
-                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN"))) {
+        if (loggedInUser != null && loggedInUser.hasPermission(Permission.VIEW_ALL_USERS)) {
             List<User> users = userService.getAllUsers();
             return ResponseEntity.ok(users);
         } else if (loggedInUser != null) {
@@ -84,6 +169,29 @@ public class UserController {
         }
     }
 
+    // Type-ahead for the admin directory: users with a word in their username, email or company starting with each word of q
+    @GetMapping("/users/search")
+    public ResponseEntity<?> searchUsers(@AuthenticationPrincipal User loggedInUser,
+                                         @RequestParam("q") String query,
+                                         @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (loggedInUser == null || !loggedInUser.hasPermission(Permission.VIEW_ALL_USERS)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can search users");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            return ResponseEntity.badRequest().body("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+
+        try {
+            return ResponseEntity.ok(userSearchIndex.search(query, limit));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(e.getMessage());
+        }
+    }
 
     @GetMapping("/users/count")
     public ResponseEntity<Map<String, Object>> countUsers() {
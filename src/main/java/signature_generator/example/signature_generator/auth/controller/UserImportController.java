@@ -0,0 +1,54 @@
+package signature_generator.example.signature_generator.auth.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import signature_generator.example.signature_generator.auth.model.Permission;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.service.UserImportService;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/admin/users")
+public class UserImportController {
+    private final UserImportService userImportService;
+
+    // Accepts text/csv (with a header row) or application/x-ndjson, read as a stream
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importUsers(@AuthenticationPrincipal User loggedInUser, HttpServletRequest request) {
+        if (loggedInUser == null || !loggedInUser.hasPermission(Permission.IMPORT_USERS)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can import users");
+        }
+
+        UserImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+
+        try {
+            UserImportService.ImportResult result = userImportService.importUsers(request.getInputStream(), format);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("imported", result.imported());
+            response.put("rejected", result.rejected());
+            response.put("errors", result.errors());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Could not read import stream");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package signature_generator.example.signature_generator.auth.controller;
+
+// Reads the entity version a client sends back in If-Match for optimistic PATCH updates
+final class VersionHeaders {
+
+    private VersionHeaders() {
+    }
+
+    // Accepts 3, "3" or W/"3"; a missing header means an unconditional update
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        version = version.replace("\"", "");
+
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match version: " + ifMatch);
+        }
+    }
+}
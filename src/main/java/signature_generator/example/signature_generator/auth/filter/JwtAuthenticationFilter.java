@@ -5,6 +5,8 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,8 +14,12 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.monitoring.AuthUserLoadEvent;
+import signature_generator.example.signature_generator.auth.monitoring.AuthVerifyEvent;
 import signature_generator.example.signature_generator.auth.service.JwtService;
+import signature_generator.example.signature_generator.auth.service.SessionService;
 import signature_generator.example.signature_generator.auth.service.UserService;
+import signature_generator.example.signature_generator.auth.service.WarmupService;
 
 import java.io.IOException;
 
@@ -21,8 +27,20 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     private final JwtService jwtService;
     private final UserService userService;
+    private final SessionService sessionService;
+    private final WarmupService warmupService;
+
+    // Public auth endpoints never need the bearer token, so a stale one can't lock a client out of login;
+    // public assets are fetched by mail clients and must not cost a token check
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.startsWith("/api/auth/") || path.startsWith("/assets/");
+    }
 
     @Override
     protected void doFilterInternal(
@@ -41,32 +59,86 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // Extract JWT from Authorization header
+        // Extract JWT from Authorization header; the parse itself is timed inside JwtService on a cache miss
         jwt = authHeader.substring(7);
+        boolean sessionToken = sessionService.isSessionToken(jwt);
+
+        // Opaque session tokens resolve to a user id straight from the off-heap session store
+        if (sessionToken) {
+            AuthVerifyEvent verifyEvent = new AuthVerifyEvent();
+            verifyEvent.begin();
+            Long userId = sessionService.resolve(jwt);
+            verifyEvent.tokenType = "session";
+            verifyEvent.accepted = userId != null;
+            verifyEvent.commit();
+            if (userId == null) {
+                rejectToken(response);
+                return;
+            }
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                AuthUserLoadEvent loadEvent = new AuthUserLoadEvent();
+                loadEvent.begin();
+                User user = userService.findById(userId);
+                loadEvent.found = user != null;
+                loadEvent.commit();
+                if (user != null) {
+                    authenticate(user, request);
+                }
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-        // Extract username from JWT token
-        userEmail = jwtService.extractUsername(jwt);
+        // Verify the token once; repeat requests with the same token are served from the cache
+        AuthVerifyEvent verifyEvent = new AuthVerifyEvent();
+        verifyEvent.begin();
+        final JwtService.VerifiedToken verified = jwtService.tryVerify(jwt);
+        verifyEvent.tokenType = "jwt";
+        verifyEvent.accepted = verified != null;
+        verifyEvent.commit();
+
+        // Malformed, forged, expired or revoked: answer 401 right here instead of unwinding an exception
+        if (verified == null) {
+            rejectToken(response);
+            return;
+        }
+        userEmail = verified.subject();
 
         // Validate token and set the authentication context
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthUserLoadEvent loadEvent = new AuthUserLoadEvent();
+            loadEvent.begin();
             User userDetails = userService.findByEmail(userEmail);
+            loadEvent.found = userDetails != null;
+            loadEvent.commit();
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                System.out.println("Token is valid. Setting authentication.");
-
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                System.out.println("SecurityContextHolder set with Authentication: "
-                        + SecurityContextHolder.getContext().getAuthentication());
+            if (userDetails != null && userEmail.equals(userDetails.getUsername())) {
+                authenticate(userDetails, request);
             }
         }
 
         // Continue with the filter chain
         filterChain.doFilter(request, response);
     }
+
+    private static void rejectToken(HttpServletResponse response) {
+        SecurityContextHolder.clearContext();
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setHeader("WWW-Authenticate", "Bearer error=\"invalid_token\"");
+    }
+
+    private void authenticate(User userDetails, HttpServletRequest request) {
+        // Feeds the hot user snapshot replayed on the next boot
+        warmupService.recordAccess(userDetails.getId());
+
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        // The principal's toString carries the password hash, so only its id goes to the log
+        log.debug("Authenticated user {} from bearer token", userDetails.getId());
+    }
 }
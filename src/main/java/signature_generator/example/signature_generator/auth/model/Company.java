@@ -0,0 +1,41 @@
+package signature_generator.example.signature_generator.auth.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+
+// Branding shared by every member of an organisation, stored once instead of per user
+@Data
+@NoArgsConstructor
+@Entity
+@DynamicUpdate
+@Table(name = "companies")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class Company {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    @Column(columnDefinition = "TEXT")
+    private String missionStatement;
+
+    @Column(columnDefinition = "TEXT")
+    private String address;
+
+    private String site;
+
+    private String logoHash; // SHA-256 of the uploaded logo, names its resized variants on disk
+
+    @Version
+    private Long version; // Bumped on every branding change, keys the rendered company fragment
+
+    public Company(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,22 @@
+package signature_generator.example.signature_generator.auth.model;
+
+// Fine-grained rights; each maps to one bit so a role's rights fit in an int
+public enum Permission {
+    VIEW_ALL_USERS,
+    IMPORT_USERS,
+    MANAGE_COMPANY_BRANDING;
+
+    private final int mask = 1 << ordinal();
+
+    public int mask() {
+        return mask;
+    }
+
+    static int maskOf(Permission... permissions) {
+        int mask = 0;
+        for (Permission permission : permissions) {
+            mask |= permission.mask;
+        }
+        return mask;
+    }
+}
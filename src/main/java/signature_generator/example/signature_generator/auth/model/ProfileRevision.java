@@ -0,0 +1,61 @@
+package signature_generator.example.signature_generator.auth.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+// One saved change to the signature fields of a user or a company. Most rows hold only the fields that changed,
+// encoded against the revision before; every few revisions a keyframe holds the full state so that rebuilding
+// any revision reads a bounded run of rows (see ProfileHistoryService).
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "profile_revisions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"subject_type", "subject_id", "revision"}))
+public class ProfileRevision {
+
+    // Whose fields the revision describes; field positions are part of the stored encoding, so only append
+    public enum Subject {
+        USER("userTitle", "companyName", "phone"),
+        COMPANY("missionStatement", "companyAddress", "companySite", "logoHash");
+
+        private final List<String> fields;
+
+        Subject(String... fields) {
+            this.fields = List.of(fields);
+        }
+
+        public List<String> fields() {
+            return fields;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "subject_type", nullable = false, length = 8)
+    private Subject subjectType;
+
+    @Column(name = "subject_id", nullable = false)
+    private Long subjectId;
+
+    @Column(nullable = false)
+    private int revision; // 1, 2, 3... per subject
+
+    @Column(nullable = false)
+    private boolean keyframe;
+
+    @Column(nullable = false)
+    private byte[] delta;
+
+    @Column(name = "changed_by")
+    private Long changedBy; // Null for changes made outside a request, e.g. imports
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,66 @@
+package signature_generator.example.signature_generator.auth.model;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+// Roles stored in users.role, with their permission bits and authority computed once
+public enum Role {
+    STAFF("Staff"),
+    ADMIN("Admin", Permission.VIEW_ALL_USERS, Permission.IMPORT_USERS, Permission.MANAGE_COMPANY_BRANDING);
+
+    private static final Role[] VALUES = values();
+
+    private final String storedName;
+    private final int permissions;
+    private final SimpleGrantedAuthority authority;
+    private final List<GrantedAuthority> authorities;
+
+    Role(String storedName, Permission... permissions) {
+        this.storedName = storedName;
+        this.permissions = Permission.maskOf(permissions);
+        this.authority = new SimpleGrantedAuthority("ROLE_" + name());
+        this.authorities = List.of(authority);
+    }
+
+    // Column value as written by sign-up and the import
+    public String storedName() {
+        return storedName;
+    }
+
+    public boolean has(Permission permission) {
+        return (permissions & permission.mask()) != 0;
+    }
+
+    public GrantedAuthority authority() {
+        return authority;
+    }
+
+    // Shared immutable list, safe to hand out from UserDetails.getAuthorities()
+    public List<GrantedAuthority> authorities() {
+        return authorities;
+    }
+
+    // Case-insensitive lookup without allocating; null for unknown roles
+    public static Role of(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (Role role : VALUES) {
+            if (role.storedName.equalsIgnoreCase(name)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    public static Role ofAuthority(String authority) {
+        for (Role role : VALUES) {
+            if (role.authority.getAuthority().equals(authority)) {
+                return role;
+            }
+        }
+        return null;
+    }
+}
@@ -1,27 +1,32 @@
 package signature_generator.example.signature_generator.auth.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
 @Data
-@Builder
-@AllArgsConstructor
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50) // Pooled ids keep inserts batchable
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -42,18 +47,40 @@ public class User implements UserDetails {
 
     private long tokenExpiryTime; // Token expiration time in milliseconds
 
-    private String companyName;
-    private String missionStatement;
-    private String companyAddress;
-    private String companySite;
-    private String userTitle;
-
     @Column(nullable = false)
     private String role; // New role field
 
+    @Version
+    @ColumnDefault("0") // Backfills rows created before versioning
+    private Long version;
+
+    // role parsed once per load or change instead of on every permission check
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Role resolvedRole;
+
     public User() {
     }
 
+    // Every persistent field; written out so the builder does not expose the resolved role cache
+    @Builder
+    public User(Long id, String username, String password, String email, String phone, boolean isVerified,
+                String verificationToken, long tokenExpiryTime, String role, Long version) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.email = email;
+        this.phone = phone;
+        this.isVerified = isVerified;
+        this.verificationToken = verificationToken;
+        this.tokenExpiryTime = tokenExpiryTime;
+        this.role = role;
+        this.version = version;
+    }
+
     // Constructor to initialize the user with required fields (username, password, email, phone)
     public User(String username, String password, String email, String phone, String role) {
         this.username = username;
@@ -73,12 +100,42 @@ public class User implements UserDetails {
         return email;
     }
 
+    // The chosen username, getUsername() returns the email for Spring Security
+    @JsonIgnore
+    public String getDisplayName() {
+        return username;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+        this.resolvedRole = Role.of(role);
+    }
+
+    // Hibernate writes the column straight into the field, also on refresh
+    @PostLoad
+    void resolveRole() {
+        resolvedRole = Role.of(role);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        if (role == null) {
-            return List.of();
+        // Interned per role, nothing is allocated per call
+        Role resolved = resolvedRole();
+        return resolved == null ? List.of() : resolved.authorities();
+    }
+
+    // Authorization as a bit test against the role's precomputed permissions
+    public boolean hasPermission(Permission permission) {
+        Role resolved = resolvedRole();
+        return resolved != null && resolved.has(permission);
+    }
+
+    // Constructors and the builder assign role directly, so resolve on first use when nothing has yet
+    private Role resolvedRole() {
+        if (resolvedRole == null && role != null) {
+            resolvedRole = Role.of(role);
         }
-        return List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())); // Add "ROLE_" prefix if needed
+        return resolvedRole;
     }
 
     @Override
@@ -0,0 +1,45 @@
+package signature_generator.example.signature_generator.auth.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
+
+// Profile data only needed for signature rendering, kept out of the users row
+// so the credential/role row read on every request stays narrow
+@Data
+@NoArgsConstructor
+@Entity
+@DynamicUpdate
+@Table(name = "user_profiles")
+public class UserProfile {
+
+    @Id
+    private Long id; // Shares the primary key of the owning user
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Company company; // Shared branding, one row per organisation
+
+    private String userTitle;
+
+    @Version
+    private Long version;
+
+    public UserProfile(User user) {
+        this.user = user;
+    }
+}
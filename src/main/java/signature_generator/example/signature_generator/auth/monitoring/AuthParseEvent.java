@@ -0,0 +1,19 @@
+package signature_generator.example.signature_generator.auth.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name(StageEvent.NAME_PREFIX + "AuthParse")
+@Label("Bearer Token Parse")
+@Description("Signature check and claim parsing of a bearer token missing from the verified-token cache")
+@Threshold("1 ms")
+public class AuthParseEvent extends StageEvent {
+
+    @Label("Token Type")
+    public String tokenType;
+
+    @Label("Accepted")
+    public boolean accepted;
+}
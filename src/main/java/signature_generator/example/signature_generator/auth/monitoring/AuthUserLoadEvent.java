@@ -0,0 +1,16 @@
+package signature_generator.example.signature_generator.auth.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name(StageEvent.NAME_PREFIX + "AuthUserLoad")
+@Label("Authenticated User Load")
+@Description("User behind a verified bearer token loaded for the security context")
+@Threshold("10 ms")
+public class AuthUserLoadEvent extends StageEvent {
+
+    @Label("Found")
+    public boolean found;
+}
@@ -0,0 +1,19 @@
+package signature_generator.example.signature_generator.auth.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name(StageEvent.NAME_PREFIX + "AuthVerify")
+@Label("Bearer Token Verify")
+@Description("Bearer token checked against the verified-token cache, JWT parser or session store")
+@Threshold("5 ms")
+public class AuthVerifyEvent extends StageEvent {
+
+    @Label("Token Type")
+    public String tokenType;
+
+    @Label("Accepted")
+    public boolean accepted;
+}
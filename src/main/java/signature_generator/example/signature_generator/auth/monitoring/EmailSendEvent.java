@@ -0,0 +1,16 @@
+package signature_generator.example.signature_generator.auth.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name(StageEvent.NAME_PREFIX + "EmailSend")
+@Label("Email Send")
+@Description("Email handed to the mail server")
+@Threshold("500 ms")
+public class EmailSendEvent extends StageEvent {
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
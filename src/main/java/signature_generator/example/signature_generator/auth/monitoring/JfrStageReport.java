@@ -0,0 +1,80 @@
+package signature_generator.example.signature_generator.auth.monitoring;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Offline per-stage latency summary of the pipeline events in a .jfr file.
+// Uses nothing but the JDK, so it runs straight from source next to the recording:
+//   java src/main/java/signature_generator/example/signature_generator/auth/monitoring/JfrStageReport.java app.jfr
+// Stages only record events above their threshold, so the percentiles describe the slow tail, not all traffic.
+public final class JfrStageReport {
+
+    // Same as StageEvent.NAME_PREFIX, spelled out so this file compiles on its own
+    private static final String PREFIX = "signature_generator.";
+
+    public record StageSummary(String stage, int count, double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+    }
+
+    private JfrStageReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrStageReport <recording.jfr>");
+            System.exit(2);
+        }
+        print(summarize(Path.of(args[0])), System.out);
+    }
+
+    // One summary per event type, keyed and sorted by stage name (event name without the shared prefix)
+    public static List<StageSummary> summarize(Path recording) throws IOException {
+        Map<String, List<Long>> durations = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String name = event.getEventType().getName();
+                if (name.startsWith(PREFIX)) {
+                    durations.computeIfAbsent(name.substring(PREFIX.length()), stage -> new ArrayList<>())
+                            .add(event.getDuration().toNanos());
+                }
+            }
+        }
+
+        List<StageSummary> summaries = new ArrayList<>(durations.size());
+        durations.forEach((stage, values) -> {
+            long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            summaries.add(new StageSummary(stage, sorted.length,
+                    percentileMs(sorted, 0.50), percentileMs(sorted, 0.90), percentileMs(sorted, 0.99),
+                    sorted[sorted.length - 1] / 1_000_000.0));
+        });
+        return summaries;
+    }
+
+    public static void print(List<StageSummary> summaries, PrintStream out) {
+        if (summaries.isEmpty()) {
+            out.println("No pipeline events in this recording (none exceeded their thresholds?)");
+            return;
+        }
+        out.printf("%-14s %8s %10s %10s %10s %10s%n", "stage", "count", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (StageSummary summary : summaries) {
+            out.printf("%-14s %8d %10.2f %10.2f %10.2f %10.2f%n", summary.stage(), summary.count(),
+                    summary.p50Ms(), summary.p90Ms(), summary.p99Ms(), summary.maxMs());
+        }
+    }
+
+    // Nearest-rank percentile over sorted nanosecond durations
+    private static double percentileMs(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
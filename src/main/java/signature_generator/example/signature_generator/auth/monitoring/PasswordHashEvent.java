@@ -0,0 +1,16 @@
+package signature_generator.example.signature_generator.auth.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name(StageEvent.NAME_PREFIX + "PasswordHash")
+@Label("BCrypt")
+@Description("BCrypt hash or compare in UserService")
+@Threshold("200 ms")
+public class PasswordHashEvent extends StageEvent {
+
+    @Label("Operation")
+    public String operation;
+}
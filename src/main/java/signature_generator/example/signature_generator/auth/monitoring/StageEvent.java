@@ -0,0 +1,17 @@
+package signature_generator.example.signature_generator.auth.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.StackTrace;
+
+// Base for the pipeline's Flight Recorder events. Each stage is its own event type so it carries its own threshold;
+// begin()/commit() cost next to nothing when no recording is running, and commit() drops anything under the threshold.
+@Category({"Signature Generator", "Pipeline"})
+@Enabled
+@StackTrace(false)
+public abstract class StageEvent extends Event {
+
+    // Every event name shares this prefix, which is how JfrStageReport picks ours out of a recording
+    public static final String NAME_PREFIX = "signature_generator.";
+}
@@ -0,0 +1,16 @@
+package signature_generator.example.signature_generator.auth.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name(StageEvent.NAME_PREFIX + "UserQuery")
+@Label("User Query")
+@Description("UserService database lookup")
+@Threshold("20 ms")
+public class UserQueryEvent extends StageEvent {
+
+    @Label("Query")
+    public String query;
+}
@@ -0,0 +1,22 @@
+package signature_generator.example.signature_generator.auth.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import signature_generator.example.signature_generator.auth.model.Company;
+
+import java.util.Optional;
+
+public interface CompanyRepository extends JpaRepository<Company, Long> {
+    Optional<Company> findByName(String name);
+
+    // Creates the row unless another transaction already did; 1 if this call inserted it
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into companies (name, version) values (:name, 0) on conflict (name) do nothing")
+    int insertIfAbsent(@Param("name") String name);
+
+    // Serialises history writes for one company, held until the transaction ends
+    @Query(nativeQuery = true, value = "select id from companies where id = :id for update")
+    Optional<Long> lockById(@Param("id") Long id);
+}
@@ -0,0 +1,56 @@
+package signature_generator.example.signature_generator.auth.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+
+// Targeted UPDATE statements that only touch the provided columns, without loading the entity
+@Repository
+public class PartialUpdateRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Returns false when no row has this id, throws when the row has moved past the expected version
+    public <T> boolean patch(Class<T> entityType, Long id, Map<String, ?> changes, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(entityType);
+        Root<T> root = update.from(entityType);
+
+        changes.forEach(update::set);
+
+        // Bump the optimistic lock version ourselves, bulk updates bypass @Version
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(cb.coalesce(version, 0L), 1L));
+
+        Predicate where = cb.equal(root.get("id"), id);
+        if (expectedVersion != null) {
+            where = cb.and(where, cb.equal(version, expectedVersion));
+        }
+        update.where(where);
+
+        if (entityManager.createQuery(update).executeUpdate() > 0) {
+            return true;
+        }
+        if (expectedVersion != null && exists(entityType, id)) {
+            throw new OptimisticLockingFailureException(
+                    entityType.getSimpleName() + " " + id + " was modified by someone else, reload and retry");
+        }
+        return false;
+    }
+
+    private boolean exists(Class<?> entityType, Long id) {
+        return entityManager.createQuery(
+                        "select count(e) from " + entityType.getSimpleName() + " e where e.id = :id", Long.class)
+                .setParameter("id", id)
+                .getSingleResult() > 0;
+    }
+}
@@ -0,0 +1,24 @@
+package signature_generator.example.signature_generator.auth.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import signature_generator.example.signature_generator.auth.model.ProfileRevision;
+
+import java.util.List;
+
+public interface ProfileRevisionRepository extends JpaRepository<ProfileRevision, Long> {
+
+    // The nearest keyframe at or before the revision and every delta after it, oldest first
+    @Query("select r from ProfileRevision r where r.subjectType = :subject and r.subjectId = :subjectId"
+            + " and r.revision <= :revision and r.revision >= (select max(k.revision) from ProfileRevision k"
+            + " where k.subjectType = :subject and k.subjectId = :subjectId and k.keyframe = true and k.revision <= :revision)"
+            + " order by r.revision")
+    List<ProfileRevision> findChain(@Param("subject") ProfileRevision.Subject subject,
+                                    @Param("subjectId") Long subjectId,
+                                    @Param("revision") int revision);
+
+    List<ProfileRevision> findBySubjectTypeAndSubjectIdOrderByRevisionDesc(ProfileRevision.Subject subject,
+                                                                          Long subjectId, Pageable pageable);
+}
@@ -0,0 +1,61 @@
+package signature_generator.example.signature_generator.auth.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import signature_generator.example.signature_generator.auth.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Plain JDBC batch inserts for bulk onboarding, skipping the persistence context entirely
+@Repository
+@RequiredArgsConstructor
+public class UserBatchRepository {
+
+    // Must match the allocationSize on User's @SequenceGenerator: Hibernate's pooled optimizer reads each
+    // nextval v as the block v - 49 .. v, so ids taken here have to come in the same blocks
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String NEXT_BLOCKS = "select nextval('users_seq') from generate_series(1, ?)";
+
+    private static final String INSERT_USER = "insert into users "
+            + "(id, username, password, email, phone, is_verified, verification_token, token_expiry_time, role, version) "
+            + "values (?, ?, ?, ?, ?, false, null, 0, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<User> users) {
+        List<Long> ids = allocateIds(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(ids.get(i));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_USER, users, users.size(), (ps, user) -> {
+            ps.setLong(1, user.getId());
+            ps.setString(2, user.getDisplayName());
+            ps.setString(3, user.getPassword());
+            ps.setString(4, user.getEmail());
+            ps.setString(5, user.getPhone());
+            ps.setString(6, user.getRole());
+        });
+    }
+
+    // One nextval per block of ALLOCATION_SIZE rows instead of one per row
+    private List<Long> allocateIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            int blocks = (count - ids.size() + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+            for (Long high : jdbcTemplate.queryForList(NEXT_BLOCKS, Long.class, blocks)) {
+                // The first values of a fresh sequence are below one block; Hibernate treats those specially, skip them
+                if (high < ALLOCATION_SIZE) {
+                    continue;
+                }
+                for (long id = high - ALLOCATION_SIZE + 1; id <= high && ids.size() < count; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,56 @@
+package signature_generator.example.signature_generator.auth.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+// The searchable columns of every user, read with plain JDBC so a full scan never builds entities
+@Repository
+public class UserDirectoryRepository {
+
+    public record Entry(long id, String username, String email, String companyName) {
+    }
+
+    private static final String SELECT = "select u.id, u.username, u.email, c.name as company_name from users u "
+            + "left join user_profiles p on p.user_id = u.id left join companies c on c.id = p.company_id";
+
+    // Rows per round trip; PostgreSQL only streams with a fetch size inside a transaction
+    private static final int FETCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public UserDirectoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    // Hands every user to the consumer in id order without holding the result set in memory
+    @Transactional(readOnly = true)
+    public void scan(Consumer<Entry> consumer) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(FETCH_SIZE);
+        streaming.query(SELECT + " order by u.id", (RowCallbackHandler) rs -> consumer.accept(entry(rs)));
+    }
+
+    // Not read-only, so it routes to the primary: these ids just changed and a lagging replica could
+    // hand back the old row, which the index would then keep until the user changes again
+    @Transactional
+    public List<Entry> findByIds(Collection<Long> ids) {
+        return namedJdbcTemplate.query(SELECT + " where u.id in (:ids)", new MapSqlParameterSource("ids", ids),
+                (rs, rowNum) -> entry(rs));
+    }
+
+    private static Entry entry(ResultSet rs) throws SQLException {
+        return new Entry(rs.getLong("id"), rs.getString("username"), rs.getString("email"), rs.getString("company_name"));
+    }
+}
@@ -0,0 +1,7 @@
+package signature_generator.example.signature_generator.auth.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import signature_generator.example.signature_generator.auth.model.UserProfile;
+
+public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
+}
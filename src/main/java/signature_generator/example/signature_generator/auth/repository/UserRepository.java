@@ -1,8 +1,14 @@
 package signature_generator.example.signature_generator.auth.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import signature_generator.example.signature_generator.auth.model.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -11,4 +17,36 @@ public interface UserRepository extends JpaRepository<User, Long> {
     User findByVerificationToken(String token);
 
     Optional<User> findByUsername(String username);// <-- Add this line
+
+    // Used by the bulk import to reject duplicates a whole chunk at a time
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    // Single-column update without loading the row first
+    @Transactional
+    @Modifying
+    @Query("update User u set u.phone = :phone, u.version = coalesce(u.version, 0) + 1 where u.id = :id")
+    int updatePhone(@Param("id") Long id, @Param("phone") String phone);
+
+    // Signed verification links only need to flip the flag, no read beforehand
+    @Transactional
+    @Modifying
+    @Query("update User u set u.isVerified = true, u.verificationToken = null where u.id = :id")
+    int markVerified(@Param("id") Long id);
+
+    // Serialises history writes for one user, held until the transaction ends
+    @Query(nativeQuery = true, value = "select id from users where id = :id for update")
+    Optional<Long> lockById(@Param("id") Long id);
+
+    // Ids assigned to rows the bulk import just inserted
+    @Query("select u.id as id, u.email as email from User u where u.email in :emails")
+    List<IdAndEmail> findIdsByEmails(@Param("emails") Collection<String> emails);
+
+    interface IdAndEmail {
+        Long getId();
+        String getEmail();
+    }
 }
\ No newline at end of file
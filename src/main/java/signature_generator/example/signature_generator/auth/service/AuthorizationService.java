@@ -0,0 +1,35 @@
+package signature_generator.example.signature_generator.auth.service;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.auth.model.Permission;
+import signature_generator.example.signature_generator.auth.model.Role;
+import signature_generator.example.signature_generator.auth.model.User;
+
+// Permission checks for @PreAuthorize, e.g. @PreAuthorize("@authz.can(authentication, 'IMPORT_USERS')")
+@Service("authz")
+public class AuthorizationService {
+
+    public boolean can(Authentication authentication, String permission) {
+        return can(authentication, Permission.valueOf(permission));
+    }
+
+    public boolean can(Authentication authentication, Permission permission) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user.hasPermission(permission);
+        }
+
+        // Principals that aren't our User (tests, other providers) are judged by their role authorities
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            Role role = Role.ofAuthority(authority.getAuthority());
+            if (role != null && role.has(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
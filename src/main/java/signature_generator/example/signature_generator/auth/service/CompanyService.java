@@ -0,0 +1,175 @@
+package signature_generator.example.signature_generator.auth.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import signature_generator.example.signature_generator.auth.model.Company;
+import signature_generator.example.signature_generator.auth.model.ProfileRevision;
+import signature_generator.example.signature_generator.auth.repository.CompanyRepository;
+import signature_generator.example.signature_generator.auth.repository.PartialUpdateRepository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class CompanyService {
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private PartialUpdateRepository partialUpdateRepository;
+
+    @Autowired(required = false)
+    private InvalidationBus invalidationBus;
+
+    @Autowired(required = false)
+    private ProfileHistoryService profileHistoryService;
+
+    // Request field name -> Company attribute
+    private static final Map<String, String> PATCHABLE_BRANDING_FIELDS = Map.of(
+            "missionStatement", "missionStatement",
+            "companyAddress", "address",
+            "companySite", "site");
+
+    // Find the company by name, creating it on first use. Only links the row: branding is shared by every
+    // member and changes through updateBranding. The insert is an upsert so two first users can't collide.
+    @Transactional
+    public Company resolveCompany(String companyName) {
+        if (companyName == null || companyName.isBlank()) {
+            return null;
+        }
+
+        String name = companyName.trim();
+        Optional<Company> existing = companyRepository.findByName(name);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        boolean created = companyRepository.insertIfAbsent(name) == 1;
+        Company company = companyRepository.findByName(name)
+                .orElseThrow(() -> new IllegalStateException("Company row missing after insert: " + name));
+        if (created) {
+            recordHistory(company.getId(), ProfileHistoryService.branding(company));
+        }
+        return company;
+    }
+
+    // Branding change for every member at once: a single company row is written
+    @Transactional
+    public Company updateBranding(Long companyId, String missionStatement,
+                                  String companyAddress, String companySite) {
+        // Before loading: the history snapshot reads the same managed row that applyBranding changes
+        prepareHistory(companyId);
+        Company company = companyRepository.findById(companyId).orElse(null);
+
+        if (company == null) {
+            throw new IllegalArgumentException("Company not found");
+        }
+
+        applyBranding(company, missionStatement, companyAddress, companySite);
+        Company saved = companyRepository.save(company);
+        recordHistory(companyId, ProfileHistoryService.branding(saved));
+        publishCompanyChange(companyId);
+        return saved;
+    }
+
+    // Targeted UPDATE of just the branding columns provided, guarded by the optional expected version
+    @Transactional
+    public void patchBranding(Long companyId, Map<String, String> changes, Long expectedVersion) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        changes.forEach((field, value) -> {
+            String attribute = PATCHABLE_BRANDING_FIELDS.get(field);
+            if (attribute == null) {
+                throw new IllegalArgumentException("Field cannot be updated: " + field);
+            }
+            values.put(attribute, value);
+        });
+
+        prepareHistory(companyId);
+        if (!partialUpdateRepository.patch(Company.class, companyId, values, expectedVersion)) {
+            throw new IllegalArgumentException("Company not found");
+        }
+        recordHistory(companyId, changes);
+        publishCompanyChange(companyId);
+    }
+
+    // Points the company at a logo whose variants are already on disk
+    @Transactional
+    public void setLogo(Long companyId, String logoHash) {
+        prepareHistory(companyId);
+        if (!partialUpdateRepository.patch(Company.class, companyId, Map.of("logoHash", logoHash), null)) {
+            throw new IllegalArgumentException("Company not found");
+        }
+        recordHistory(companyId, Collections.singletonMap("logoHash", logoHash));
+        publishCompanyChange(companyId);
+    }
+
+    // Restores the branding and logo saved at that revision for every member; the restore is itself a new revision.
+    // Logo variants are stored under their content hash and never deleted, so an old hash still resolves.
+    @Transactional
+    public void rollbackBranding(Long companyId, int revision) {
+        if (profileHistoryService == null) {
+            throw new IllegalStateException("Company history is not available");
+        }
+        Map<String, String> state = profileHistoryService.reconstruct(ProfileRevision.Subject.COMPANY, companyId, revision);
+
+        Map<String, Object> values = new HashMap<>();
+        state.forEach((field, value) -> values.put(PATCHABLE_BRANDING_FIELDS.getOrDefault(field, field), value));
+        prepareHistory(companyId);
+        if (!partialUpdateRepository.patch(Company.class, companyId, values, null)) {
+            throw new IllegalArgumentException("Company not found");
+        }
+        recordHistory(companyId, state);
+        publishCompanyChange(companyId);
+    }
+
+    @Transactional(readOnly = true)
+    public Company findById(Long companyId) {
+        return companyRepository.findById(companyId).orElse(null);
+    }
+
+    private void prepareHistory(Long companyId) {
+        if (profileHistoryService != null && companyId != null) {
+            profileHistoryService.prepare(ProfileRevision.Subject.COMPANY, companyId);
+        }
+    }
+
+    private void recordHistory(Long companyId, Map<String, String> values) {
+        if (profileHistoryService != null && companyId != null) {
+            profileHistoryService.record(ProfileRevision.Subject.COMPANY, companyId, values);
+        }
+    }
+
+    // Every node drops its rendered company block once the branding change commits
+    private void publishCompanyChange(Long companyId) {
+        if (invalidationBus != null && companyId != null) {
+            invalidationBus.publish(InvalidationBus.Event.company(companyId));
+        }
+    }
+
+    // Missing fields keep the shared value so one member can't blank it for everyone; true if anything changed
+    private boolean applyBranding(Company company, String missionStatement,
+                                  String companyAddress, String companySite) {
+        boolean changed = false;
+        if (missionStatement != null && !missionStatement.equals(company.getMissionStatement())) {
+            company.setMissionStatement(missionStatement);
+            changed = true;
+        }
+        if (companyAddress != null && !companyAddress.equals(company.getAddress())) {
+            company.setAddress(companyAddress);
+            changed = true;
+        }
+        if (companySite != null && !companySite.equals(company.getSite())) {
+            company.setSite(companySite);
+            changed = true;
+        }
+        return changed;
+    }
+}
@@ -3,7 +3,9 @@ package signature_generator.example.signature_generator.auth.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.MailSender;
 import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.auth.monitoring.EmailSendEvent;
 
 @Service
 public class EmailService {
@@ -18,11 +20,22 @@ public class EmailService {
         message.setSubject(subject);
         message.setText(body);
 
+        EmailSendEvent event = new EmailSendEvent();
+        event.begin();
         try {
             mailSender.send(message);
+            event.succeeded = true;
         } catch (Exception e) {
             // Handle email sending errors
             throw new RuntimeException("Error sending email", e);
+        } finally {
+            event.commit();
         }
     }
-}
\ No newline at end of file
+
+    // Queue an email on the mail executor instead of sending it on the caller's thread
+    @Async("mailExecutor")
+    public void sendEmailAsync(String to, String subject, String body) {
+        sendEmail(to, subject, body);
+    }
+}
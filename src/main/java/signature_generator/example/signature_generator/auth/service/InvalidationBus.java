@@ -0,0 +1,273 @@
+package signature_generator.example.signature_generator.auth.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cache invalidation across instances over Postgres LISTEN/NOTIFY.
+// Events reach local listeners right after commit; remote nodes get them in coalesced batches every flush interval.
+@Service
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private static final String CHANNEL = "cache_invalidation";
+    // Postgres rejects NOTIFY payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    // Unsent events kept across failed flushes before they collapse into a single ALL
+    private static final int MAX_PENDING_EVENTS = 100_000;
+
+    public enum Type {
+        USER('U'),
+        COMPANY('C'),
+        TOKEN('T'),
+        SUBJECT('S'),
+        // Notifications may have been missed (listener reconnected), drop everything
+        ALL('A');
+
+        private final char code;
+
+        Type(char code) {
+            this.code = code;
+        }
+
+        static Type of(char code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    public record Event(Type type, String key) {
+        public static Event user(Long userId) {
+            return new Event(Type.USER, String.valueOf(userId));
+        }
+
+        public static Event company(Long companyId) {
+            return new Event(Type.COMPANY, String.valueOf(companyId));
+        }
+
+        String encode() {
+            return type.code + key;
+        }
+
+        static Event decode(String encoded) {
+            Type type = encoded.isEmpty() ? null : Type.of(encoded.charAt(0));
+            return type == null ? null : new Event(type, encoded.substring(1));
+        }
+    }
+
+    // Implemented by anything holding data that another node may change
+    public interface Listener {
+        void onInvalidation(Event event);
+    }
+
+    private final ObjectProvider<Listener> listeners;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.cache.bus.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username:}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    // Set semantics coalesce repeated edits of the same row within one flush interval
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public InvalidationBus(ObjectProvider<Listener> listeners, @Qualifier("primaryDataSource") DataSource primary) {
+        this.listeners = listeners;
+        // NOTIFY must go to the primary even when called from a read-only transaction
+        this.jdbcTemplate = new JdbcTemplate(primary);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isRemoteEnabled()) {
+            log.info("Cache invalidation bus is local-only");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-bus-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        flush();
+    }
+
+    // Applied after the surrounding transaction commits, so no node can re-cache the old row in between
+    public void publish(Event event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    private void dispatch(Event event) {
+        deliver(event);
+        if (isRemoteEnabled()) {
+            pending.add(event.encode());
+        }
+    }
+
+    // One NOTIFY per batch instead of one per write. Batches that could not be sent go back into pending and are
+    // retried on the next flush, so a primary outage delays remote invalidations instead of losing them.
+    @Scheduled(fixedDelayString = "${app.cache.bus.flush-ms:50}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        int payloadBytes = nodeId.length();
+        Iterator<String> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            String event = iterator.next();
+            iterator.remove();
+            int eventBytes = event.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (payloadBytes + eventBytes > MAX_PAYLOAD_BYTES && !batch.isEmpty()) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                payloadBytes = nodeId.length();
+            }
+            batch.add(event);
+            payloadBytes += eventBytes;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        for (int i = 0; i < batches.size(); i++) {
+            try {
+                jdbcTemplate.queryForObject("select pg_notify(?, ?)", String.class, CHANNEL,
+                        nodeId + "\n" + String.join("\n", batches.get(i)));
+            } catch (RuntimeException e) {
+                log.warn("Could not publish cache invalidations, retrying next flush: {}", e.getMessage());
+                for (List<String> unsent : batches.subList(i, batches.size())) {
+                    pending.addAll(unsent);
+                }
+                capPending();
+                return;
+            }
+        }
+    }
+
+    // A long outage would otherwise grow pending without bound; past the cap remote nodes just drop everything
+    private void capPending() {
+        if (pending.size() > MAX_PENDING_EVENTS) {
+            pending.clear();
+            pending.add(new Event(Type.ALL, "").encode());
+        }
+    }
+
+    // Dedicated connection outside the pool: LISTEN is tied to the session for as long as we run
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password);
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                if (reconnecting) {
+                    deliver(new Event(Type.ALL, ""));
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener disconnected, retrying: {}", e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void receive(String payload) {
+        String[] lines = payload.split("\n");
+        if (lines.length == 0 || lines[0].equals(nodeId)) {
+            return; // Our own batch, already applied locally
+        }
+        for (int i = 1; i < lines.length; i++) {
+            Event event = Event.decode(lines[i]);
+            if (event != null) {
+                deliver(event);
+            }
+        }
+    }
+
+    private void deliver(Event event) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onInvalidation(event);
+            } catch (RuntimeException e) {
+                log.warn("Cache listener {} failed on {}: {}", listener.getClass().getSimpleName(), event, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isRemoteEnabled() {
+        return enabled && url != null && url.startsWith("jdbc:postgresql:");
+    }
+}
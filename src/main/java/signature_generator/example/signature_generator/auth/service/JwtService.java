@@ -1,25 +1,90 @@
 package signature_generator.example.signature_generator.auth.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.monitoring.AuthParseEvent;
+import signature_generator.example.signature_generator.auth.util.ExpiringCache;
+import signature_generator.example.signature_generator.auth.util.ExpiryMap;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.Map;
 import java.util.function.Function;
 
 @Service
-public class JwtService {
+public class JwtService implements InvalidationBus.Listener {
 
     @Value("${jwt.secret.key}")
     private String secretKey;
+
+    @Value("${jwt.cache.max-entries:100000}")
+    private int cacheMaxEntries = 100_000;
+
+    @Value("${jwt.negative-cache.ttl-ms:60000}")
+    private long negativeCacheTtlMs = 60_000;
+
+    @Autowired(required = false)
+    private InvalidationBus invalidationBus;
+
+    // Anything outside these bounds can't be a token we issued
+    private static final int MIN_TOKEN_LENGTH = 40;
+    private static final int MAX_TOKEN_LENGTH = 2048;
+
     private static final long EXPIRATION_TIME = 86400000;
 
+    // Claims we need from an already verified token
+    public record VerifiedToken(String subject, Long userId, long issuedAt, long expiresAt) {
+    }
+
+    private Key signInKey;
+    private JwtParser parser;
+
+    // Token digest -> verified claims, each entry lives no longer than the token itself
+    private ExpiringCache<ByteBuffer, VerifiedToken> verifiedTokens;
+    // Token digest -> revoked marker, kept until the token would have expired anyway and never evicted before that
+    private ExpiryMap<ByteBuffer, Boolean> revokedTokens;
+    // Subject -> tokens issued before this instant are no longer accepted; same retention as above
+    private ExpiryMap<String, Long> revokedSubjects;
+    // Token digest -> recently failed verification, replays are rejected without parsing
+    private ExpiringCache<ByteBuffer, Boolean> rejectedTokens;
+
+    // Header segment of every token we issue ({"alg":"HS256"}), compared as-is
+    private String expectedHeader;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        verifiedTokens = new ExpiringCache<>(cacheMaxEntries);
+        revokedTokens = new ExpiryMap<>(cacheMaxEntries);
+        revokedSubjects = new ExpiryMap<>(cacheMaxEntries);
+        rejectedTokens = new ExpiringCache<>(cacheMaxEntries);
+
+        String sample = buildToken("header-probe", 0L);
+        expectedHeader = sample.substring(0, sample.indexOf('.'));
+    }
+
     // Build the token with claims, subject, issued date, expiration, and signature
     public String buildToken(String username,Long userId) {
 
@@ -32,9 +97,166 @@ public class JwtService {
                 .compact();
     }
 
+    // Verify the token once, then serve its claims from the cache until it expires
+    public VerifiedToken verify(String token) {
+        VerifiedToken verified = tryVerify(token);
+        if (verified == null) {
+            throw new JwtException("Invalid, expired or revoked token");
+        }
+        return verified;
+    }
+
+    // Same as verify() but returns null for anything we won't accept, without throwing
+    public VerifiedToken tryVerify(String token) {
+        // Cheapest checks first: garbage never gets hashed, let alone parsed
+        if (!isWellFormed(token)) {
+            return null;
+        }
+
+        ByteBuffer digest = digest(token);
+        if (rejectedTokens.get(digest) != null || revokedTokens.get(digest) != null) {
+            return null;
+        }
+
+        VerifiedToken verified = verifiedTokens.get(digest);
+        if (verified == null) {
+            AuthParseEvent parseEvent = new AuthParseEvent();
+            parseEvent.begin();
+            verified = parse(token);
+            parseEvent.tokenType = "jwt";
+            parseEvent.accepted = verified != null;
+            parseEvent.commit();
+            if (verified == null) {
+                rejectedTokens.put(digest, Boolean.TRUE, System.currentTimeMillis() + negativeCacheTtlMs);
+                return null;
+            }
+            verifiedTokens.put(digest, verified, verified.expiresAt());
+        }
+
+        Long notBefore = revokedSubjects.get(verified.subject());
+        if (notBefore != null && verified.issuedAt() < notBefore) {
+            verifiedTokens.invalidate(digest);
+            return null;
+        }
+        return verified;
+    }
+
+    // Runs the signing, shape check, hashing and parsing paths without touching any cache, for JIT warm-up on boot
+    public void warmUp(int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            String token = buildToken("warmup-" + i + "@localhost", (long) -i);
+            digest(token);
+            if (!isWellFormed(token) || parse(token) == null) {
+                throw new IllegalStateException("Warm-up token failed verification");
+            }
+        }
+    }
+
+    // Length, exactly three base64url segments and our own header, checked without allocating
+    private boolean isWellFormed(String token) {
+        if (token == null || token.length() < MIN_TOKEN_LENGTH || token.length() > MAX_TOKEN_LENGTH) {
+            return false;
+        }
+        if (!token.startsWith(expectedHeader) || token.length() <= expectedHeader.length()
+                || token.charAt(expectedHeader.length()) != '.') {
+            return false;
+        }
+
+        int dots = 0;
+        for (int i = expectedHeader.length(); i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                dots++;
+            } else if (!isBase64Url(c)) {
+                return false;
+            }
+        }
+        return dots == 2 && token.charAt(token.length() - 1) != '.';
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+
+    private VerifiedToken parse(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            if (claims.getExpiration() == null) {
+                return null;
+            }
+            Object userId = claims.get("userId");
+            return new VerifiedToken(
+                    claims.getSubject(),
+                    userId == null ? null : Long.valueOf(userId.toString()),
+                    claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime(),
+                    claims.getExpiration().getTime());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Revocation hook for a single token, e.g. on logout
+    public void revoke(String token) {
+        VerifiedToken verified = tryVerify(token);
+        if (verified == null) {
+            return; // Already invalid, nothing to revoke
+        }
+        ByteBuffer digest = digest(token);
+        revokeDigest(digest, verified.expiresAt());
+        publish(InvalidationBus.Type.TOKEN,
+                Base64.getUrlEncoder().withoutPadding().encodeToString(digest.array()) + ":" + verified.expiresAt());
+    }
+
+    // Revocation hook for every token issued to a subject so far, e.g. on password or role change
+    public void revokeSubject(String subject) {
+        long now = System.currentTimeMillis();
+        // iat has second precision, so round up to cover tokens issued earlier in this second
+        long notBefore = now - now % 1000 + 1000;
+        revokeSubject(subject, notBefore);
+        publish(InvalidationBus.Type.SUBJECT, notBefore + ":" + subject);
+    }
+
+    // Revocations made on other nodes; applying one twice is harmless
+    @Override
+    public void onInvalidation(InvalidationBus.Event event) {
+        switch (event.type()) {
+            case TOKEN -> {
+                int separator = event.key().lastIndexOf(':');
+                revokeDigest(ByteBuffer.wrap(Base64.getUrlDecoder().decode(event.key().substring(0, separator))),
+                        Long.parseLong(event.key().substring(separator + 1)));
+            }
+            case SUBJECT -> {
+                int separator = event.key().indexOf(':');
+                revokeSubject(event.key().substring(separator + 1),
+                        Long.parseLong(event.key().substring(0, separator)));
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void revokeDigest(ByteBuffer digest, long expiresAt) {
+        verifiedTokens.invalidate(digest);
+        revokedTokens.put(digest, Boolean.TRUE, expiresAt);
+    }
+
+    private void revokeSubject(String subject, long notBefore) {
+        Long current = revokedSubjects.get(subject);
+        if (current == null || current < notBefore) {
+            revokedSubjects.put(subject, notBefore, notBefore + EXPIRATION_TIME);
+        }
+        verifiedTokens.invalidateIf(verified -> verified.subject().equals(subject));
+    }
+
+    private void publish(InvalidationBus.Type type, String key) {
+        if (invalidationBus != null) {
+            invalidationBus.publish(new InvalidationBus.Event(type, key));
+        }
+    }
+
     // Extract username from the token
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     // Generic claim extraction
@@ -45,32 +267,28 @@ public class JwtService {
 
     // Extract all claims from the token
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     // Validate token with user details and check for expiration
     public Boolean isTokenValid(String token, User userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    // Check if the token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        final VerifiedToken verified = verify(token);
+        return (verified.subject().equals(userDetails.getUsername()) && verified.expiresAt() > System.currentTimeMillis());
     }
 
     // Extract expiration date from the token
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return new Date(verify(token).expiresAt());
     }
 
     // Get signing key from the secret key
     private Key getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
     }
 }
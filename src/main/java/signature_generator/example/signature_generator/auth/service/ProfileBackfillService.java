@@ -0,0 +1,74 @@
+package signature_generator.example.signature_generator.auth.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// One-off copy of the signature fields that used to live on users (company_name, mission_statement, company_address,
+// company_site, user_title) into companies and user_profiles. ddl-auto=update leaves the old columns in place but no
+// longer maps them, so without this every existing user would lose their title and company from their signature.
+// Only users without a profile row are copied, so it is safe to run on every boot and on several nodes at once.
+// The old columns are left untouched as a fallback and can be dropped by hand once the copy has been checked.
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE) // Before the search index and warm-up read profiles
+public class ProfileBackfillService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileBackfillService.class);
+
+    private static final List<String> LEGACY_COLUMNS =
+            List.of("company_name", "mission_statement", "company_address", "company_site", "user_title");
+
+    private static final String FIND_LEGACY_COLUMNS = "select count(*) from information_schema.columns "
+            + "where table_schema = current_schema() and table_name = 'users' and column_name in (?, ?, ?, ?, ?)";
+
+    // Branding was copied onto every member, the lowest user id's copy becomes the company's
+    private static final String INSERT_COMPANIES = "insert into companies (name, mission_statement, address, site, version) "
+            + "select distinct on (trim(u.company_name)) trim(u.company_name), u.mission_statement, u.company_address, "
+            + "u.company_site, 0 from users u where trim(u.company_name) <> '' "
+            + "order by trim(u.company_name), u.id "
+            + "on conflict (name) do nothing";
+
+    private static final String INSERT_PROFILES = "insert into user_profiles (user_id, company_id, user_title, version) "
+            + "select u.id, c.id, u.user_title, 0 from users u "
+            + "left join companies c on c.name = trim(u.company_name) "
+            + "where (u.user_title is not null or trim(u.company_name) <> '') "
+            + "and not exists (select 1 from user_profiles p where p.user_id = u.id) "
+            + "on conflict (user_id) do nothing";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.profile-backfill.enabled:true}")
+    private boolean enabled = true;
+
+    public ProfileBackfillService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Not read-only, so it runs on the primary
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        Integer present = jdbcTemplate.queryForObject(FIND_LEGACY_COLUMNS, Integer.class, LEGACY_COLUMNS.toArray());
+        if (present == null || present < LEGACY_COLUMNS.size()) {
+            return; // Database created after the move, nothing to copy
+        }
+
+        int companies = jdbcTemplate.update(INSERT_COMPANIES);
+        int profiles = jdbcTemplate.update(INSERT_PROFILES);
+        if (companies > 0 || profiles > 0) {
+            log.info("Copied legacy signature fields: {} companies and {} user profiles created", companies, profiles);
+        }
+    }
+}
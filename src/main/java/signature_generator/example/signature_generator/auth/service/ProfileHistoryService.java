@@ -0,0 +1,321 @@
+package signature_generator.example.signature_generator.auth.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import signature_generator.example.signature_generator.auth.model.Company;
+import signature_generator.example.signature_generator.auth.model.ProfileRevision;
+import signature_generator.example.signature_generator.auth.model.ProfileRevision.Subject;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.repository.CompanyRepository;
+import signature_generator.example.signature_generator.auth.repository.ProfileRevisionRepository;
+import signature_generator.example.signature_generator.auth.repository.UserProfileRepository;
+import signature_generator.example.signature_generator.auth.repository.UserRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Append-only history of the signature fields of users and companies, written in the same transaction as each change.
+// A revision stores only the fields that changed, and a text field that was edited rather than replaced stores just the
+// changed middle plus how many leading and trailing characters to keep. Every keyframe-interval revisions a keyframe
+// stores the full state instead, so rebuilding any revision reads one keyframe and at most interval - 1 deltas.
+//
+// Delta layout, per changed field: a header byte (bits 0-5 field position in Subject.fields(), bit 6 edit, bit 7 cleared),
+// then for an edit varint kept-prefix and kept-suffix lengths (in chars), then unless cleared a varint byte length and UTF-8.
+@Service
+public class ProfileHistoryService {
+
+    private static final int CLEARED = 0x80;
+    private static final int EDIT = 0x40;
+    private static final int FIELD_MASK = 0x3f;
+    // Below this many kept chars the two length varints cost more than they save
+    private static final int MIN_KEPT_CHARS = 3;
+
+    private final ProfileRevisionRepository profileRevisionRepository;
+    private final UserRepository userRepository;
+    private final UserProfileRepository userProfileRepository;
+    private final CompanyRepository companyRepository;
+
+    @Value("${app.history.keyframe-interval:32}")
+    private int keyframeInterval = 32;
+
+    // One line of a history listing; for a keyframe the fields are every field it sets, not only those that changed
+    public record RevisionInfo(int revision, Instant createdAt, Long changedBy, boolean keyframe,
+                               List<String> fields, int deltaBytes) {
+    }
+
+    public ProfileHistoryService(ProfileRevisionRepository profileRevisionRepository, UserRepository userRepository,
+                                 UserProfileRepository userProfileRepository, CompanyRepository companyRepository) {
+        this.profileRevisionRepository = profileRevisionRepository;
+        this.userRepository = userRepository;
+        this.userProfileRepository = userProfileRepository;
+        this.companyRepository = companyRepository;
+    }
+
+    // Call before a write, in its transaction: locks the subject so concurrent writes take revision numbers one at a
+    // time, and if the subject has no history yet stores what it holds now as revision 1, so the first recorded
+    // change can still be rolled back.
+    @Transactional
+    public void prepare(Subject subject, Long subjectId) {
+        lock(subject, subjectId);
+        if (profileRevisionRepository.findChain(subject, subjectId, Integer.MAX_VALUE).isEmpty()) {
+            save(subject, subjectId, 1, true, encode(subject, Map.of(), currentState(subject, subjectId)));
+        }
+    }
+
+    // Appends the values a write just stored (null clears a field, fields not given keep their value); no row if nothing changed.
+    // Without prepare() the first revision is read back from the rows, which is right only for a subject the write created.
+    @Transactional
+    public void record(Subject subject, Long subjectId, Map<String, String> values) {
+        lock(subject, subjectId);
+        List<ProfileRevision> chain = profileRevisionRepository.findChain(subject, subjectId, Integer.MAX_VALUE);
+        Map<String, String> previous = rebuild(subject, chain);
+
+        Map<String, String> next = new HashMap<>(chain.isEmpty() ? currentState(subject, subjectId) : previous);
+        values.forEach((field, value) -> {
+            if (!subject.fields().contains(field)) {
+                throw new IllegalArgumentException("Field has no history: " + field);
+            }
+            if (value == null) {
+                next.remove(field);
+            } else {
+                next.put(field, value);
+            }
+        });
+        if (!chain.isEmpty() && next.equals(previous)) {
+            return;
+        }
+
+        boolean keyframe = chain.isEmpty() || chain.size() >= keyframeInterval;
+        int number = chain.isEmpty() ? 1 : chain.get(chain.size() - 1).getRevision() + 1;
+        save(subject, subjectId, number, keyframe, encode(subject, keyframe ? Map.of() : previous, next));
+    }
+
+    // Every field as it was at that revision, in Subject.fields() order, null where unset
+    @Transactional(readOnly = true)
+    public Map<String, String> reconstruct(Subject subject, Long subjectId, int revision) {
+        List<ProfileRevision> chain = revision < 1 ? List.of()
+                : profileRevisionRepository.findChain(subject, subjectId, revision);
+        if (chain.isEmpty() || chain.get(chain.size() - 1).getRevision() != revision) {
+            throw new IllegalArgumentException("Revision " + revision + " not found");
+        }
+
+        Map<String, String> state = rebuild(subject, chain);
+        Map<String, String> ordered = new LinkedHashMap<>();
+        for (String field : subject.fields()) {
+            ordered.put(field, state.get(field));
+        }
+        return ordered;
+    }
+
+    // Newest first
+    @Transactional(readOnly = true)
+    public List<RevisionInfo> history(Subject subject, Long subjectId, int page, int size) {
+        return profileRevisionRepository
+                .findBySubjectTypeAndSubjectIdOrderByRevisionDesc(subject, subjectId, PageRequest.of(page, size))
+                .stream()
+                .map(revision -> new RevisionInfo(revision.getRevision(), revision.getCreatedAt(), revision.getChangedBy(),
+                        revision.isKeyframe(), fieldsIn(subject, revision.getDelta()), revision.getDelta().length))
+                .toList();
+    }
+
+    private void save(Subject subject, Long subjectId, int number, boolean keyframe, byte[] delta) {
+        ProfileRevision revision = new ProfileRevision();
+        revision.setSubjectType(subject);
+        revision.setSubjectId(subjectId);
+        revision.setRevision(number);
+        revision.setKeyframe(keyframe);
+        revision.setDelta(delta);
+        revision.setChangedBy(currentUserId());
+        revision.setCreatedAt(Instant.now());
+        profileRevisionRepository.save(revision);
+    }
+
+    // Row lock on the user or company until commit; the next revision number is only read under it
+    private void lock(Subject subject, Long subjectId) {
+        switch (subject) {
+            case USER -> userRepository.lockById(subjectId);
+            case COMPANY -> companyRepository.lockById(subjectId);
+        }
+    }
+
+    private Map<String, String> currentState(Subject subject, Long subjectId) {
+        Map<String, String> state = new HashMap<>();
+        switch (subject) {
+            case USER -> {
+                userRepository.findById(subjectId).ifPresent(user -> putIfSet(state, "phone", user.getPhone()));
+                userProfileRepository.findById(subjectId).ifPresent(profile -> {
+                    putIfSet(state, "userTitle", profile.getUserTitle());
+                    putIfSet(state, "companyName", profile.getCompany() != null ? profile.getCompany().getName() : null);
+                });
+            }
+            case COMPANY -> companyRepository.findById(subjectId).ifPresent(company -> state.putAll(branding(company)));
+        }
+        return state;
+    }
+
+    // The company's history fields, without the unset ones
+    static Map<String, String> branding(Company company) {
+        Map<String, String> state = new HashMap<>();
+        putIfSet(state, "missionStatement", company.getMissionStatement());
+        putIfSet(state, "companyAddress", company.getAddress());
+        putIfSet(state, "companySite", company.getSite());
+        putIfSet(state, "logoHash", company.getLogoHash());
+        return state;
+    }
+
+    private static void putIfSet(Map<String, String> state, String field, String value) {
+        if (value != null) {
+            state.put(field, value);
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+
+    // The chain starts at a keyframe, which rebuilds from nothing
+    private static Map<String, String> rebuild(Subject subject, List<ProfileRevision> chain) {
+        Map<String, String> state = new HashMap<>();
+        for (ProfileRevision revision : chain) {
+            apply(subject, state, revision.getDelta());
+        }
+        return state;
+    }
+
+    private static byte[] encode(Subject subject, Map<String, String> previous, Map<String, String> next) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        List<String> fields = subject.fields();
+        for (int position = 0; position < fields.size(); position++) {
+            String before = previous.get(fields.get(position));
+            String after = next.get(fields.get(position));
+            if (Objects.equals(before, after)) {
+                continue;
+            }
+            if (after == null) {
+                out.write(CLEARED | position);
+                continue;
+            }
+
+            int prefix = 0;
+            int suffix = 0;
+            if (before != null) {
+                prefix = commonPrefix(before, after);
+                suffix = commonSuffix(before, after, prefix);
+            }
+            if (prefix + suffix >= MIN_KEPT_CHARS) {
+                out.write(EDIT | position);
+                writeVarint(out, prefix);
+                writeVarint(out, suffix);
+            } else {
+                out.write(position);
+                prefix = 0;
+                suffix = 0;
+            }
+            byte[] middle = after.substring(prefix, after.length() - suffix).getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, middle.length);
+            out.write(middle, 0, middle.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static void apply(Subject subject, Map<String, String> state, byte[] delta) {
+        ByteBuffer in = ByteBuffer.wrap(delta);
+        while (in.hasRemaining()) {
+            int header = in.get() & 0xff;
+            String field = subject.fields().get(header & FIELD_MASK);
+            if ((header & CLEARED) != 0) {
+                state.remove(field);
+                continue;
+            }
+            String before = state.getOrDefault(field, "");
+            int prefix = 0;
+            int suffix = 0;
+            if ((header & EDIT) != 0) {
+                prefix = readVarint(in);
+                suffix = readVarint(in);
+            }
+            byte[] middle = new byte[readVarint(in)];
+            in.get(middle);
+            state.put(field, before.substring(0, prefix) + new String(middle, StandardCharsets.UTF_8)
+                    + before.substring(before.length() - suffix));
+        }
+    }
+
+    // Field names a delta touches, skipping over the values
+    private static List<String> fieldsIn(Subject subject, byte[] delta) {
+        List<String> names = new ArrayList<>();
+        ByteBuffer in = ByteBuffer.wrap(delta);
+        while (in.hasRemaining()) {
+            int header = in.get() & 0xff;
+            names.add(subject.fields().get(header & FIELD_MASK));
+            if ((header & CLEARED) != 0) {
+                continue;
+            }
+            if ((header & EDIT) != 0) {
+                readVarint(in);
+                readVarint(in);
+            }
+            int length = readVarint(in);
+            in.position(in.position() + length);
+        }
+        return names;
+    }
+
+    // Never ends inside a surrogate pair, so the stored middle is always valid UTF-16 and survives UTF-8
+    private static int commonPrefix(String before, String after) {
+        int limit = Math.min(before.length(), after.length());
+        int prefix = 0;
+        while (prefix < limit && before.charAt(prefix) == after.charAt(prefix)) {
+            prefix++;
+        }
+        if (prefix > 0 && Character.isHighSurrogate(after.charAt(prefix - 1))) {
+            prefix--;
+        }
+        return prefix;
+    }
+
+    private static int commonSuffix(String before, String after, int prefix) {
+        int limit = Math.min(before.length(), after.length()) - prefix;
+        int suffix = 0;
+        while (suffix < limit
+                && before.charAt(before.length() - 1 - suffix) == after.charAt(after.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(after.charAt(after.length() - suffix))) {
+            suffix--;
+        }
+        return suffix;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.get() & 0xff;
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package signature_generator.example.signature_generator.auth.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.auth.util.OffHeapSessionStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// Opt-in opaque bearer tokens (app.session.mode=opaque): "ses_" + base64url(slot index + random secret).
+// Only a hash of the secret is stored, in the off-heap slot store, so lookup and logout are O(1).
+@Service
+public class SessionService {
+
+    public static final String TOKEN_PREFIX = "ses_";
+
+    private static final int SECRET_BYTES = 16;
+    private static final int TOKEN_BYTES = Integer.BYTES + SECRET_BYTES;
+    private static final int TOKEN_LENGTH = TOKEN_PREFIX.length() + (TOKEN_BYTES * 4 + 2) / 3;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    });
+
+    @Value("${app.session.mode:jwt}")
+    private String mode = "jwt";
+
+    @Value("${app.session.store-path:data/sessions.dat}")
+    private String storePath = "data/sessions.dat";
+
+    @Value("${app.session.capacity:1000000}")
+    private int capacity = 1_000_000;
+
+    @Value("${app.session.ttl-ms:86400000}")
+    private long ttlMs = 86_400_000;
+
+    private final SecureRandom random = new SecureRandom();
+    private OffHeapSessionStore store;
+
+    @PostConstruct
+    void init() throws IOException {
+        if ("opaque".equalsIgnoreCase(mode)) {
+            store = new OffHeapSessionStore(Path.of(storePath), capacity);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    // Whether login should hand out opaque tokens instead of JWTs
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    // Cheap shape check so the filter can route a bearer token without decoding it
+    public boolean isSessionToken(String token) {
+        return token != null && token.length() == TOKEN_LENGTH && token.startsWith(TOKEN_PREFIX);
+    }
+
+    public String issue(Long userId) {
+        if (store == null) {
+            throw new IllegalStateException("Opaque sessions are disabled");
+        }
+
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        ByteBuffer hash = hash(secret);
+
+        long now = System.currentTimeMillis();
+        int slot = store.allocate(userId, hash.getLong(0), hash.getLong(8), now, now + ttlMs);
+        if (slot < 0) {
+            throw new IllegalStateException("Session store is full");
+        }
+
+        ByteBuffer token = ByteBuffer.allocate(TOKEN_BYTES).putInt(slot).put(secret);
+        return TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+    }
+
+    // User id of a live session, null for unknown, expired or logged-out tokens
+    public Long resolve(String token) {
+        ByteBuffer decoded = decode(token);
+        if (decoded == null) {
+            return null;
+        }
+        ByteBuffer hash = hash(secretOf(decoded));
+        long userId = store.lookup(decoded.getInt(0), hash.getLong(0), hash.getLong(8), System.currentTimeMillis());
+        return userId < 0 ? null : userId;
+    }
+
+    public boolean invalidate(String token) {
+        ByteBuffer decoded = decode(token);
+        if (decoded == null) {
+            return false;
+        }
+        ByteBuffer hash = hash(secretOf(decoded));
+        return store.release(decoded.getInt(0), hash.getLong(0), hash.getLong(8));
+    }
+
+    private ByteBuffer decode(String token) {
+        if (store == null || !isSessionToken(token)) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token.substring(TOKEN_PREFIX.length()));
+            return bytes.length == TOKEN_BYTES ? ByteBuffer.wrap(bytes) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] secretOf(ByteBuffer decoded) {
+        byte[] secret = new byte[SECRET_BYTES];
+        decoded.get(Integer.BYTES, secret);
+        return secret;
+    }
+
+    private static ByteBuffer hash(byte[] secret) {
+        return ByteBuffer.wrap(SHA_256.get().digest(secret));
+    }
+}
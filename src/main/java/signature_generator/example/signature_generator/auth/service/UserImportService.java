@@ -0,0 +1,306 @@
+package signature_generator.example.signature_generator.auth.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import signature_generator.example.signature_generator.auth.model.Role;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.repository.UserBatchRepository;
+import signature_generator.example.signature_generator.auth.repository.UserRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    public record ImportError(long line, String message) {
+    }
+
+    public record ImportResult(int imported, int rejected, List<ImportError> errors) {
+    }
+
+    private record ImportRow(long line, String username, String email, String password, String phone, String role) {
+    }
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private final UserRepository userRepository;
+    private final UserBatchRepository userBatchRepository;
+    private final EmailService emailService;
+    private final VerificationLinkService verificationLinkService;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private InvalidationBus invalidationBus;
+
+    // BCrypt dominates the import, so hash on every core without starving the common pool
+    private final ForkJoinPool hashingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    // Stream the upload chunk by chunk: validate, hash in parallel, insert in one JDBC batch, queue invitations
+    @PreAuthorize("@authz.can(authentication, 'IMPORT_USERS')")
+    public ImportResult importUsers(InputStream input, Format format) throws IOException {
+        Counter counter = new Counter();
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenUsernames = new HashSet<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = format == Format.CSV ? readCsvHeader(reader) : null;
+            List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            long lineNumber = header != null ? 1 : 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    ImportRow row = format == Format.CSV ? parseCsv(lineNumber, line, header) : parseJson(lineNumber, line);
+                    validate(row, seenEmails, seenUsernames);
+                    chunk.add(row);
+                } catch (IllegalArgumentException e) {
+                    counter.reject(lineNumber, e.getMessage());
+                }
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, counter);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, counter);
+        }
+
+        return new ImportResult(counter.imported, counter.rejected, counter.errors);
+    }
+
+    private void importChunk(List<ImportRow> chunk, Counter counter) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // One query per chunk instead of two lookups per user
+        Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmails(
+                chunk.stream().map(ImportRow::email).toList()));
+        Set<String> existingUsernames = new HashSet<>(userRepository.findExistingUsernames(
+                chunk.stream().map(ImportRow::username).toList()));
+
+        List<ImportRow> accepted = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (existingEmails.contains(row.email())) {
+                counter.reject(row.line(), "Email already exists");
+            } else if (existingUsernames.contains(row.username())) {
+                counter.reject(row.line(), "Username already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+
+        List<User> users = hashingPool.submit(() -> accepted.parallelStream()
+                .map(this::toUser)
+                .toList()).join();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<User> inserted = new ArrayList<>(users.size());
+        try {
+            transaction.executeWithoutResult(status -> userBatchRepository.insertAll(users));
+            inserted.addAll(users);
+        } catch (DataIntegrityViolationException e) {
+            // Someone signed up concurrently, fall back to row-by-row so the rest of the chunk still lands
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                try {
+                    transaction.executeWithoutResult(status -> userBatchRepository.insertAll(List.of(user)));
+                    inserted.add(user);
+                } catch (DataIntegrityViolationException duplicate) {
+                    counter.reject(accepted.get(i).line(), "Username or email already exists");
+                }
+            }
+        }
+        invite(inserted, counter);
+    }
+
+    private User toUser(ImportRow row) {
+        User user = new User(row.username(), passwordEncoder.encode(row.password()), row.email(), row.phone(), row.role());
+        user.setVerified(false);
+        return user;
+    }
+
+    // The batch insert doesn't hand back generated ids, so fetch them in one query to sign the links
+    private void invite(List<User> users, Counter counter) {
+        if (users.isEmpty()) {
+            return;
+        }
+        counter.imported += users.size();
+        for (UserRepository.IdAndEmail row : userRepository.findIdsByEmails(users.stream().map(User::getEmail).toList())) {
+            emailService.sendEmailAsync(
+                    row.getEmail(),
+                    "Verify Your Email",
+                    "Click the following link to verify your email: " + verificationLinkService.createLink(row.getId())
+            );
+            // Lets the directory search on every node pick up the new user
+            if (invalidationBus != null) {
+                invalidationBus.publish(InvalidationBus.Event.user(row.getId()));
+            }
+        }
+    }
+
+    private static void validate(ImportRow row, Set<String> seenEmails, Set<String> seenUsernames) {
+        if (isBlank(row.username()) || isBlank(row.email()) || isBlank(row.password())) {
+            throw new IllegalArgumentException("username, email and password are required");
+        }
+        if (!EMAIL.matcher(row.email()).matches()) {
+            throw new IllegalArgumentException("Invalid email: " + row.email());
+        }
+        if (Role.of(row.role()) == null) {
+            throw new IllegalArgumentException("Unknown role: " + row.role());
+        }
+        if (!seenEmails.add(row.email())) {
+            throw new IllegalArgumentException("Duplicate email in import: " + row.email());
+        }
+        if (!seenUsernames.add(row.username())) {
+            throw new IllegalArgumentException("Duplicate username in import: " + row.username());
+        }
+    }
+
+    private Map<String, Integer> readCsvHeader(BufferedReader reader) throws IOException {
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new IllegalArgumentException("CSV import is empty");
+        }
+
+        Map<String, Integer> header = new HashMap<>();
+        List<String> columns = splitCsv(headerLine);
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("username", "email", "password")) {
+            if (!header.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must contain " + required);
+            }
+        }
+        return header;
+    }
+
+    private static ImportRow parseCsv(long line, String text, Map<String, Integer> header) {
+        List<String> values = splitCsv(text);
+        return new ImportRow(line,
+                column(values, header, "username"),
+                column(values, header, "email"),
+                column(values, header, "password"),
+                column(values, header, "phone"),
+                roleOrDefault(column(values, header, "role")));
+    }
+
+    private ImportRow parseJson(long line, String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+        return new ImportRow(line,
+                text(node, "username"),
+                text(node, "email"),
+                text(node, "password"),
+                text(node, "phone"),
+                roleOrDefault(text(node, "role")));
+    }
+
+    // Minimal RFC 4180 field splitting: quoted fields, doubled quotes, no embedded newlines
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText().trim();
+    }
+
+    // Normalises the spelling of known roles, unknown ones are rejected by validate()
+    private static String roleOrDefault(String role) {
+        if (role == null) {
+            return Role.STAFF.storedName();
+        }
+        Role known = Role.of(role);
+        return known == null ? role : known.storedName();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static final class Counter {
+        private int imported;
+        private int rejected;
+        private final List<ImportError> errors = new ArrayList<>();
+
+        private void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,557 @@
+package signature_generator.example.signature_generator.auth.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.auth.repository.UserDirectoryRepository;
+import signature_generator.example.signature_generator.auth.repository.UserDirectoryRepository.Entry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Type-ahead search over username, email and company name for the admin user directory.
+// Every field is split into lowercase words. Each word is filed under its first two and first three characters, and
+// under the trigrams starting at each of its next five characters, so a query word of up to eight characters narrows the
+// candidates to users with all of its grams; anything the grams can't decide is checked against the stored text.
+// Lists are sorted int arrays of user slots and the text of all users is one UTF-8 byte array, so the index holds a
+// handful of ints and bytes per user instead of objects.
+// Built from a streamed scan once the application is up, then patched from user change events from every node.
+@Service
+public class UserSearchIndex implements InvalidationBus.Listener, ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    public record Hit(long id, String username, String email, String companyName) {
+    }
+
+    // Shortest query word that can be looked up on its own; single letters only narrow other words
+    public static final int MIN_WORD_CHARS = 2;
+    private static final int MAX_GRAM_CHARS = 3;
+    // Trigrams are also taken at these offsets into each word; without them a miss like "gmax" scans every "gma" user
+    private static final int MAX_GRAM_OFFSET = 5;
+    // Users reloaded per refresh query
+    private static final int REFRESH_BATCH = 1000;
+
+    private final UserDirectoryRepository userDirectoryRepository;
+
+    @Value("${app.search.enabled:true}")
+    private boolean enabled = true;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Null until the first build completes
+    private volatile Index index;
+    // Users changed since they were last indexed; set semantics coalesce repeated edits between refreshes
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // Users changed while a rebuild scan runs, which the scan may have read before the change
+    private final Set<Long> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean rebuildRequested;
+
+    public UserSearchIndex(UserDirectoryRepository userDirectoryRepository) {
+        this.userDirectoryRepository = userDirectoryRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    // Up to limit users with a word starting with each word of the query; IllegalStateException until the index is built
+    public List<Hit> search(String query, int limit) {
+        List<String> words = words(query == null ? "" : query);
+        if (words.stream().noneMatch(word -> word.length() >= MIN_WORD_CHARS)) {
+            throw new IllegalArgumentException("Search needs a word of at least " + MIN_WORD_CHARS + " characters");
+        }
+        Index current = index;
+        if (current == null) {
+            throw new IllegalStateException("User search is still being built, try again shortly");
+        }
+
+        lock.readLock().lock();
+        try {
+            return current.search(words, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Streams every user into a fresh index in the background; searches keep using the current one until it is swapped in
+    public synchronized void rebuild() {
+        if (building) {
+            rebuildRequested = true;
+            return;
+        }
+        building = true;
+        Thread builder = new Thread(this::build, "user-search-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    private void build() {
+        long started = System.currentTimeMillis();
+        try {
+            Index fresh = new Index();
+            userDirectoryRepository.scan(fresh::put);
+            fresh.trim();
+
+            lock.writeLock().lock();
+            try {
+                index = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("User search index built: {} users in {} ms", fresh.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.warn("Could not build the user search index: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                building = false;
+                dirty.addAll(changedDuringBuild);
+                changedDuringBuild.clear();
+                if (rebuildRequested) {
+                    rebuildRequested = false;
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    // Re-reads changed users in batches; a user that no longer exists leaves the index
+    @Scheduled(fixedDelayString = "${app.search.refresh-ms:200}")
+    public void refresh() {
+        Index current = index;
+        while (current != null && !dirty.isEmpty()) {
+            List<Long> ids = new ArrayList<>(Math.min(dirty.size(), REFRESH_BATCH));
+            Iterator<Long> iterator = dirty.iterator();
+            while (iterator.hasNext() && ids.size() < REFRESH_BATCH) {
+                ids.add(iterator.next());
+                iterator.remove();
+            }
+
+            List<Entry> entries;
+            try {
+                entries = userDirectoryRepository.findByIds(ids);
+            } catch (RuntimeException e) {
+                dirty.addAll(ids);
+                log.warn("Could not refresh the user search index: {}", e.getMessage());
+                return;
+            }
+            Set<Long> missing = new HashSet<>(ids);
+            lock.writeLock().lock();
+            try {
+                for (Entry entry : entries) {
+                    current.put(entry);
+                    missing.remove(entry.id());
+                }
+                missing.forEach(current::remove);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void onInvalidation(InvalidationBus.Event event) {
+        switch (event.type()) {
+            case USER -> {
+                Long userId = Long.valueOf(event.key());
+                dirty.add(userId);
+                if (building) {
+                    changedDuringBuild.add(userId);
+                }
+            }
+            // Changes may have been missed, e.g. while the bus was reconnecting
+            case ALL -> {
+                if (enabled) {
+                    rebuild();
+                }
+            }
+            default -> {
+                // Company names never change, so company edits leave the index as it is
+            }
+        }
+    }
+
+    // Lowercase runs of letters and digits
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Two or three characters of the word packed with their offset and count; never 0
+    private static long gram(String word, int offset, int chars) {
+        long key = (long) (offset * 4 + chars) << 48;
+        for (int i = 0; i < chars; i++) {
+            key |= (long) word.charAt(offset + i) << (32 - 16 * i);
+        }
+        return key;
+    }
+
+    // Grams every word starting with this one must have: its two-character prefix, or its trigrams up to MAX_GRAM_OFFSET
+    private static long[] queryGrams(String word) {
+        if (word.length() < MIN_WORD_CHARS) {
+            return new long[0];
+        }
+        if (word.length() < MAX_GRAM_CHARS) {
+            return new long[]{gram(word, 0, MIN_WORD_CHARS)};
+        }
+        int count = Math.min(word.length() - MAX_GRAM_CHARS, MAX_GRAM_OFFSET) + 1;
+        long[] grams = new long[count];
+        for (int offset = 0; offset < count; offset++) {
+            grams[offset] = gram(word, offset, MAX_GRAM_CHARS);
+        }
+        return grams;
+    }
+
+    // All mutable state of one generation of the index; callers hold the outer lock
+    static final class Index {
+        private final LongIntMap slots = new LongIntMap();
+        private long[] ids = new long[1024]; // slot -> user id, -1 once the user is gone
+        private int[] textStart = new int[1024]; // slot -> "username\0email\0company" in the arena
+        private int[] textLength = new int[1024];
+        private int slotCount;
+        private int live;
+
+        private byte[] arena = new byte[64 * 1024];
+        private int arenaSize;
+        private int arenaGarbage;
+
+        private final LongIntMap grams = new LongIntMap();
+        private int[][] postings = new int[1024][]; // sorted slots per gram
+        private int[] postingSizes = new int[1024];
+        private int postingCount;
+
+        int size() {
+            return live;
+        }
+
+        void put(Entry entry) {
+            byte[] text = (nullToEmpty(entry.username()) + '\0' + nullToEmpty(entry.email()) + '\0'
+                    + nullToEmpty(entry.companyName())).getBytes(StandardCharsets.UTF_8);
+            int slot = slots.get(entry.id());
+            long[] previousGrams = new long[0];
+            if (slot < 0) {
+                slot = newSlot(entry.id());
+            } else if (ids[slot] < 0) {
+                ids[slot] = entry.id();
+                live++;
+            } else {
+                if (Arrays.equals(arena, textStart[slot], textStart[slot] + textLength[slot], text, 0, text.length)) {
+                    return;
+                }
+                previousGrams = gramsOf(text(slot));
+                arenaGarbage += textLength[slot];
+            }
+
+            store(slot, text);
+            long[] nextGrams = gramsOf(new String(text, StandardCharsets.UTF_8));
+            for (long gram : previousGrams) {
+                if (Arrays.binarySearch(nextGrams, gram) < 0) {
+                    removeFromPosting(gram, slot);
+                }
+            }
+            for (long gram : nextGrams) {
+                if (Arrays.binarySearch(previousGrams, gram) < 0) {
+                    addToPosting(gram, slot);
+                }
+            }
+            compactIfWasteful();
+        }
+
+        // Drops the growth headroom of every list once a build is done; lists that grow again double as usual
+        void trim() {
+            for (int list = 0; list < postingCount; list++) {
+                if (postings[list].length > postingSizes[list]) {
+                    postings[list] = Arrays.copyOf(postings[list], Math.max(postingSizes[list], 1));
+                }
+            }
+            arena = Arrays.copyOf(arena, Math.max(arenaSize, 1));
+        }
+
+        void remove(long userId) {
+            int slot = slots.get(userId);
+            if (slot < 0 || ids[slot] < 0) {
+                return;
+            }
+            for (long gram : gramsOf(text(slot))) {
+                removeFromPosting(gram, slot);
+            }
+            ids[slot] = -1;
+            arenaGarbage += textLength[slot];
+            textLength[slot] = 0;
+            live--;
+        }
+
+        List<Hit> search(List<String> queryWords, int limit) {
+            // Walk the shortest list, check the others by binary search, and read the text only when the lists can't decide:
+            // a single prefix gram is exact, but several trigrams may each come from a different word
+            List<Integer> found = new ArrayList<>();
+            boolean needsText = false;
+            for (String word : queryWords) {
+                needsText |= word.length() < MIN_WORD_CHARS || word.length() > MAX_GRAM_CHARS;
+                for (long gram : queryGrams(word)) {
+                    int list = grams.get(gram);
+                    if (list < 0) {
+                        return List.of();
+                    }
+                    found.add(list);
+                }
+            }
+            int[] lists = found.stream().mapToInt(Integer::intValue).toArray();
+            int shortest = 0;
+            for (int i = 1; i < lists.length; i++) {
+                if (postingSizes[lists[i]] < postingSizes[lists[shortest]]) {
+                    shortest = i;
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(Math.min(limit, 64));
+            int[] candidates = postings[lists[shortest]];
+            int candidateCount = postingSizes[lists[shortest]];
+            for (int c = 0; c < candidateCount && hits.size() < limit; c++) {
+                int slot = candidates[c];
+                if (!inAllLists(slot, lists, shortest)) {
+                    continue;
+                }
+                String text = text(slot);
+                if (needsText && !matchesAll(text, queryWords)) {
+                    continue;
+                }
+                String[] fields = text.split("\0", -1);
+                hits.add(new Hit(ids[slot], emptyToNull(fields[0]), emptyToNull(fields[1]), emptyToNull(fields[2])));
+            }
+            return hits;
+        }
+
+        private boolean inAllLists(int slot, int[] lists, int skip) {
+            for (int i = 0; i < lists.length; i++) {
+                if (i != skip
+                        && Arrays.binarySearch(postings[lists[i]], 0, postingSizes[lists[i]], slot) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean matchesAll(String text, List<String> queryWords) {
+            List<String> words = words(text);
+            for (String queryWord : queryWords) {
+                if (words.stream().noneMatch(word -> word.startsWith(queryWord))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int newSlot(long userId) {
+            if (slotCount == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                textStart = Arrays.copyOf(textStart, capacity);
+                textLength = Arrays.copyOf(textLength, capacity);
+            }
+            int slot = slotCount++;
+            ids[slot] = userId;
+            slots.put(userId, slot);
+            live++;
+            return slot;
+        }
+
+        private void store(int slot, byte[] text) {
+            if (arenaSize + text.length > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + text.length));
+            }
+            System.arraycopy(text, 0, arena, arenaSize, text.length);
+            textStart[slot] = arenaSize;
+            textLength[slot] = text.length;
+            arenaSize += text.length;
+        }
+
+        private String text(int slot) {
+            return new String(arena, textStart[slot], textLength[slot], StandardCharsets.UTF_8);
+        }
+
+        // Once half the arena is text of old versions, copy the live text into a right-sized one
+        private void compactIfWasteful() {
+            if (arenaGarbage < 1 << 20 || arenaGarbage < arenaSize / 2) {
+                return;
+            }
+            byte[] compacted = new byte[Math.max(64 * 1024, (arenaSize - arenaGarbage) * 3 / 2)];
+            int size = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (ids[slot] >= 0) {
+                    System.arraycopy(arena, textStart[slot], compacted, size, textLength[slot]);
+                    textStart[slot] = size;
+                    size += textLength[slot];
+                }
+            }
+            arena = compacted;
+            arenaSize = size;
+            arenaGarbage = 0;
+        }
+
+        private static long[] gramsOf(String text) {
+            List<String> words = words(text);
+            long[] keys = new long[words.size() * (MAX_GRAM_OFFSET + 2)];
+            int count = 0;
+            for (String word : words) {
+                if (word.length() >= MIN_WORD_CHARS) {
+                    keys[count++] = gram(word, 0, MIN_WORD_CHARS);
+                }
+                for (int offset = 0; offset <= MAX_GRAM_OFFSET && offset + MAX_GRAM_CHARS <= word.length(); offset++) {
+                    keys[count++] = gram(word, offset, MAX_GRAM_CHARS);
+                }
+            }
+            Arrays.sort(keys, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || keys[distinct - 1] != keys[i]) {
+                    keys[distinct++] = keys[i];
+                }
+            }
+            return Arrays.copyOf(keys, distinct);
+        }
+
+        private void addToPosting(long gram, int slot) {
+            int list = grams.get(gram);
+            if (list < 0) {
+                if (postingCount == postings.length) {
+                    postings = Arrays.copyOf(postings, postingCount * 2);
+                    postingSizes = Arrays.copyOf(postingSizes, postingCount * 2);
+                }
+                list = postingCount++;
+                postings[list] = new int[4];
+                grams.put(gram, list);
+            }
+
+            int[] posting = postings[list];
+            int size = postingSizes[list];
+            // New users get the highest slot, so this is almost always an append
+            int at = size > 0 && posting[size - 1] < slot ? size : Arrays.binarySearch(posting, 0, size, slot);
+            if (at < 0) {
+                at = -at - 1;
+            } else if (at < size) {
+                return;
+            }
+            if (size == posting.length) {
+                posting = Arrays.copyOf(posting, size * 2);
+                postings[list] = posting;
+            }
+            System.arraycopy(posting, at, posting, at + 1, size - at);
+            posting[at] = slot;
+            postingSizes[list] = size + 1;
+        }
+
+        private void removeFromPosting(long gram, int slot) {
+            int list = grams.get(gram);
+            if (list < 0) {
+                return;
+            }
+            int[] posting = postings[list];
+            int size = postingSizes[list];
+            int at = Arrays.binarySearch(posting, 0, size, slot);
+            if (at >= 0) {
+                System.arraycopy(posting, at + 1, posting, at, size - at - 1);
+                postingSizes[list] = size - 1;
+            }
+        }
+
+        private static String nullToEmpty(String value) {
+            return value == null ? "" : value;
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    // Open-addressing long -> int map without boxing; get returns -1 when absent, entries are never removed
+    static final class LongIntMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(1024);
+        private int[] values = new int[1024];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
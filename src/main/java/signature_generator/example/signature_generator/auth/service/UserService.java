@@ -1,13 +1,31 @@
 package signature_generator.example.signature_generator.auth.service;
 
+import signature_generator.example.signature_generator.auth.model.Company;
+import signature_generator.example.signature_generator.auth.model.ProfileRevision;
+import signature_generator.example.signature_generator.auth.model.Role;
 import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.model.UserProfile;
+import signature_generator.example.signature_generator.auth.monitoring.PasswordHashEvent;
+import signature_generator.example.signature_generator.auth.monitoring.UserQueryEvent;
+import signature_generator.example.signature_generator.auth.repository.PartialUpdateRepository;
+import signature_generator.example.signature_generator.auth.repository.UserProfileRepository;
 import signature_generator.example.signature_generator.auth.repository.UserRepository;
+import signature_generator.example.signature_generator.auth.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.UUID;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 public class UserService {
@@ -15,8 +33,52 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private PartialUpdateRepository partialUpdateRepository;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private InvalidationBus invalidationBus;
+
+    @Autowired(required = false)
+    private ProfileHistoryService profileHistoryService;
+
+    // Parallel requests carrying the same token share one lookup instead of each hitting the database
+    private final SingleFlight<String, User> emailLoads = new SingleFlight<>();
+    private final SingleFlight<Long, User> idLoads = new SingleFlight<>();
+
+    private static final Set<String> PATCHABLE_USER_FIELDS = Set.of("phone");
+    private static final Set<String> PATCHABLE_PROFILE_FIELDS = Set.of("userTitle", "companyName");
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
+    @PostConstruct
+    void registerMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        bindMetrics("email", emailLoads);
+        bindMetrics("id", idLoads);
+    }
+
+    private void bindMetrics(String key, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder("users.load.calls", flight, SingleFlight::calls)
+                .tag("key", key).register(meterRegistry);
+        FunctionCounter.builder("users.load.coalesced", flight, SingleFlight::coalesced)
+                .tag("key", key).register(meterRegistry);
+        Gauge.builder("users.load.coalescing.ratio", flight,
+                        f -> f.calls() == 0 ? 0 : (double) f.coalesced() / f.calls())
+                .tag("key", key).register(meterRegistry);
+    }
+
     public User registerUser(String username, String password, String email, String phone) {
         // Check if username already exists
         if (userRepository.findByUsername(username).isPresent()) {
@@ -29,94 +91,258 @@ public class UserService {
         }
 
         // Encode the password
+        PasswordHashEvent hashEvent = new PasswordHashEvent();
+        hashEvent.begin();
         String encodedPassword = passwordEncoder.encode(password);
+        hashEvent.operation = "encode";
+        hashEvent.commit();
 
-        // Generate a verification token
-        String verificationToken = UUID.randomUUID().toString();
-
-        // Create a new user
-        User user = new User(username, encodedPassword, email, phone, "Staff"); // Default role as Staff
-        user.setVerificationToken(verificationToken);
+        // Create a new user; the verification link is signed, so no token is stored
+        User user = new User(username, encodedPassword, email, phone, Role.STAFF.storedName()); // Default role as Staff
         user.setVerified(false); // The user is not verified initially
 
-        // Set the expiration time for the token (e.g., 24 hours from now)
-        user.setTokenExpiryTime(System.currentTimeMillis() + 24 * 60 * 60 * 1000); // 24 hours
-
         // Save the user to the database
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        recordHistory(saved.getId(), Collections.singletonMap("phone", phone));
+        // Nothing is cached for a new user yet, but the directory search picks it up from the event
+        publishUserChange(saved.getId());
+        return saved;
     }
 
     public User findByVerificationToken(String token) {
         return userRepository.findByVerificationToken(token);
     }
 
+    // Returns false when no user has that id
+    public boolean markVerified(Long userId) {
+        if (userRepository.markVerified(userId) == 0) {
+            return false;
+        }
+        publishUserChange(userId);
+        return true;
+    }
+
     public boolean isTokenExpired(User user) {
         return System.currentTimeMillis() > user.getTokenExpiryTime();
     }
 
     public void saveUser(User user) {
         userRepository.save(user);
+        publishUserChange(user.getId());
     }
 
+    @Transactional(readOnly = true)
     public User findByEmail(String email) {
-        return userRepository.findByEmail(email);  // This method fetches user by email from the database
+        // Concurrent callers share the in-flight result; User has no lazy associations so it is safe to hand out
+        return emailLoads.execute(email, () -> timedQuery("findByEmail", () -> userRepository.findByEmail(email)));
     }
 
     public boolean authenticate(String email, String password) {
-        User user = userRepository.findByEmail(email);
+        User user = timedQuery("findByEmail", () -> userRepository.findByEmail(email));
         if (user == null || !user.isVerified()) {
             return false;
         }
-        return passwordEncoder.matches(password, user.getPassword());
+
+        PasswordHashEvent hashEvent = new PasswordHashEvent();
+        hashEvent.begin();
+        boolean matches = passwordEncoder.matches(password, user.getPassword());
+        hashEvent.operation = "matches";
+        hashEvent.commit();
+        return matches;
     }
 
+    @Transactional
     public boolean updatePhoneNumber(Long userId, String phone) {
         // Log the received userId and phone
         System.out.println("Received request to update phone for user ID: " + userId);
+        prepareHistory(userId);
 
-        // Check if user exists
-        User user = userRepository.findById(userId).orElse(null);
-        if (user == null) {
+        // Update the phone number with a single targeted UPDATE, no need to load the user first
+        if (userRepository.updatePhone(userId, phone) == 0) {
             throw new IllegalArgumentException("User with ID " + userId + " not found");
         }
-
-        // Update the phone number
-        System.out.println("Updating phone for user: " + user.getUsername());
-        user.setPhone(phone);
-
-        // Save the updated user
-        userRepository.save(user);
+        recordHistory(userId, Collections.singletonMap("phone", phone));
+        publishUserChange(userId);
         System.out.println("Phone updated successfully for user ID: " + userId);
 
         return true;
     }
-    public User updateUserCompanyInfo(Long userId, String companyName, String missionStatement,
-                                      String companyAddress, String companySite, String userTitle) {
-        // Find the user by ID
-        User user = userRepository.findById(userId).orElse(null);
 
-        if (user == null) {
+    // Apply only the provided user fields, optionally guarded by the version the client last saw
+    @Transactional
+    public void patchUser(Long userId, Map<String, String> changes, Long expectedVersion) {
+        requirePatchableFields(changes, PATCHABLE_USER_FIELDS);
+
+        String phone = changes.get("phone");
+        if (changes.containsKey("phone") && (phone == null || phone.isEmpty())) {
+            throw new IllegalArgumentException("Phone number is required");
+        }
+
+        prepareHistory(userId);
+        if (!partialUpdateRepository.patch(User.class, userId, changes, expectedVersion)) {
             throw new IllegalArgumentException("User not found");
         }
+        recordHistory(userId, changes);
+        publishUserChange(userId);
+    }
 
-        // Update the user's company-related fields
-        user.setCompanyName(companyName);
-        user.setMissionStatement(missionStatement);
-        user.setCompanyAddress(companyAddress);
-        user.setCompanySite(companySite);
-        user.setUserTitle(userTitle);
+    // Apply only the provided profile fields; the first patch creates the profile row
+    @Transactional
+    public void patchProfile(Long userId, Map<String, String> changes, Long expectedVersion) {
+        requirePatchableFields(changes, PATCHABLE_PROFILE_FIELDS);
 
-        // Save the updated user
-        return userRepository.save(user);
+        Map<String, Object> values = new HashMap<>();
+        Map<String, String> recorded = new HashMap<>();
+        if (changes.containsKey("userTitle")) {
+            values.put("userTitle", changes.get("userTitle"));
+            recorded.put("userTitle", changes.get("userTitle"));
+        }
+        if (changes.containsKey("companyName")) {
+            // Only (re)links the company, shared branding is patched on the company itself
+            Company company = companyService.resolveCompany(changes.get("companyName"));
+            values.put("company", company);
+            recorded.put("companyName", company != null ? company.getName() : null);
+        }
+
+        prepareHistory(userId);
+        writeProfile(userId, values, expectedVersion);
+        recordHistory(userId, recorded);
+        publishUserChange(userId);
     }
+
+    // Restores the title, company link and phone saved at that revision; the restore is itself a new revision.
+    // Shared branding is left alone, it has its own history on the company.
+    @Transactional
+    public void rollbackProfile(Long userId, int revision) {
+        if (profileHistoryService == null) {
+            throw new IllegalStateException("Profile history is not available");
+        }
+        Map<String, String> state = profileHistoryService.reconstruct(ProfileRevision.Subject.USER, userId, revision);
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("userTitle", state.get("userTitle"));
+        values.put("company", companyService.resolveCompany(state.get("companyName")));
+        prepareHistory(userId);
+        writeProfile(userId, values, null);
+        // A phone is required once set, so a revision from before the first one leaves the current number
+        Map<String, String> written = new HashMap<>(state);
+        if (state.get("phone") == null) {
+            written.remove("phone");
+        } else if (userRepository.updatePhone(userId, state.get("phone")) == 0) {
+            throw new IllegalArgumentException("User not found");
+        }
+
+        recordHistory(userId, written);
+        publishUserChange(userId);
+    }
+
+    // Targeted update of the profile columns; the first write creates the profile row
+    private void writeProfile(Long userId, Map<String, Object> values, Long expectedVersion) {
+        if (partialUpdateRepository.patch(UserProfile.class, userId, values, expectedVersion)) {
+            return;
+        }
+        if (expectedVersion != null || !userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+
+        UserProfile profile = new UserProfile(userRepository.getReferenceById(userId));
+        profile.setUserTitle((String) values.get("userTitle"));
+        profile.setCompany((Company) values.get("company"));
+        userProfileRepository.save(profile);
+    }
+
+    // Before the write: locks the user's history and keeps the values the write is about to replace
+    private void prepareHistory(Long userId) {
+        if (profileHistoryService != null && userId != null) {
+            profileHistoryService.prepare(ProfileRevision.Subject.USER, userId);
+        }
+    }
+
+    // Appends a revision with the values this write stored, in the same transaction as the write
+    private void recordHistory(Long userId, Map<String, String> values) {
+        if (profileHistoryService != null && userId != null) {
+            profileHistoryService.record(ProfileRevision.Subject.USER, userId, values);
+        }
+    }
+
+    // Other nodes drop whatever they cached for this user once our transaction commits
+    private void publishUserChange(Long userId) {
+        if (invalidationBus != null && userId != null) {
+            invalidationBus.publish(InvalidationBus.Event.user(userId));
+        }
+    }
+
+    private static void requirePatchableFields(Map<String, String> changes, Set<String> patchable) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        for (String field : changes.keySet()) {
+            if (!patchable.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be updated: " + field);
+            }
+        }
+    }
+
+    @Transactional
+    public UserProfile updateUserCompanyInfo(Long userId, String companyName, String missionStatement,
+                                             String companyAddress, String companySite, String userTitle) {
+        prepareHistory(userId);
+        // Load only the profile row, the credential row is never rewritten
+        UserProfile profile = userProfileRepository.findById(userId).orElse(null);
+
+        if (profile == null) {
+            if (!userRepository.existsById(userId)) {
+                throw new IllegalArgumentException("User not found");
+            }
+            // First profile for this user, link it without loading the user row
+            profile = new UserProfile(userRepository.getReferenceById(userId));
+        }
+
+        // Link the shared company row, branding lives there instead of on every member. The controller only
+        // passes branding for callers allowed to change it, and it goes through the company's own update.
+        Company company = companyService.resolveCompany(companyName);
+        if (company != null && (missionStatement != null || companyAddress != null || companySite != null)) {
+            company = companyService.updateBranding(company.getId(), missionStatement, companyAddress, companySite);
+        }
+        profile.setCompany(company);
+        profile.setUserTitle(userTitle);
+
+        // Save the updated profile; the previous values stay reconstructable from the history
+        UserProfile saved = userProfileRepository.save(profile);
+        Map<String, String> recorded = new HashMap<>();
+        recorded.put("userTitle", userTitle);
+        recorded.put("companyName", saved.getCompany() != null ? saved.getCompany().getName() : null);
+        recordHistory(userId, recorded);
+        publishUserChange(userId);
+        return saved;
+    }
+    @Transactional(readOnly = true)
+    public UserProfile findProfile(Long userId) {
+        return userProfileRepository.findById(userId).orElse(null);
+    }
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
-        return userRepository.findAll();
+        return timedQuery("findAll", userRepository::findAll);
     }
+    @Transactional(readOnly = true)
     public long countAllUsers() {
-        return userRepository.count(); // Count all users in the database
+        return timedQuery("count", userRepository::count); // Count all users in the database
     }
+    @Transactional(readOnly = true)
     public User findById(Long userId) {
-        return userRepository.findById(userId).orElse(null);
+        return idLoads.execute(userId, () -> timedQuery("findById", () -> userRepository.findById(userId).orElse(null)));
+    }
+
+    // Only the flight leader's query is timed, coalesced callers never reach the database
+    private static <T> T timedQuery(String query, Supplier<T> call) {
+        UserQueryEvent event = new UserQueryEvent();
+        event.begin();
+        try {
+            return call.get();
+        } finally {
+            event.query = query;
+            event.commit();
+        }
     }
 
 }
\ No newline at end of file
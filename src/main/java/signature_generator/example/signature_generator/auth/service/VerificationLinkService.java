@@ -0,0 +1,76 @@
+package signature_generator.example.signature_generator.auth.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.auth.util.HmacSigner;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// Email verification links that carry their own signed, expiring payload: userId.expiry.nonce.signature
+@Service
+public class VerificationLinkService {
+
+    @Value("${app.verification.secret:${jwt.secret.key}}")
+    private String secret;
+
+    @Value("${app.verification.base-url:http://signaturegenerator.samueldev.com/api/auth/verify}")
+    private String baseUrl;
+
+    private static final long LINK_VALIDITY_SECONDS = 24 * 60 * 60;
+
+    // Verified payload of a signed link
+    public record SignedVerification(Long userId, long expiresAt) {
+        public boolean isExpired() {
+            return System.currentTimeMillis() / 1000 > expiresAt;
+        }
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private HmacSigner signer;
+
+    @PostConstruct
+    void init() {
+        signer = new HmacSigner(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String createLink(Long userId) {
+        return baseUrl + "?token=" + createToken(userId);
+    }
+
+    public String createToken(Long userId) {
+        byte[] nonce = new byte[6];
+        random.nextBytes(nonce);
+
+        String payload = userId + "." + (System.currentTimeMillis() / 1000 + LINK_VALIDITY_SECONDS)
+                + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(nonce);
+        return payload + "." + signer.sign("verify:" + payload);
+    }
+
+    // Signed tokens contain dots; legacy stored tokens are plain UUIDs
+    public boolean isSignedToken(String token) {
+        return token != null && token.indexOf('.') > 0;
+    }
+
+    // Returns the payload when the signature matches (expiry is left to the caller), otherwise null
+    public SignedVerification parse(String token) {
+        int signatureStart = token.lastIndexOf('.');
+        String[] parts = token.substring(0, Math.max(signatureStart, 0)).split("\\.");
+        if (signatureStart < 0 || parts.length != 3) {
+            return null;
+        }
+
+        String payload = token.substring(0, signatureStart);
+        if (!signer.verify("verify:" + payload, token.substring(signatureStart + 1))) {
+            return null;
+        }
+
+        try {
+            return new SignedVerification(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package signature_generator.example.signature_generator.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.auth.model.User;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Warm restart: remembers which users authenticate most, snapshots them to a local file, and on the next boot
+// replays their lookups and authenticated requests before the readiness probe reports ACCEPTING_TRAFFIC.
+// Application runners finish before Spring Boot flips readiness, so this blocks traffic, not startup of the server.
+@Service
+public class WarmupService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+    // Cap on distinct users counted between snapshots, so a crawl over every account can't grow the map unbounded
+    private static final int MAX_TRACKED = 100_000;
+
+    private final UserService userService;
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.warmup.snapshot-path:data/hot-users.dat}")
+    private String snapshotPath = "data/hot-users.dat";
+
+    @Value("${app.warmup.hot-users:500}")
+    private int hotUsers = 500;
+
+    @Value("${app.warmup.iterations:2000}")
+    private int iterations = 2000;
+
+    @Value("${app.warmup.max-ms:30000}")
+    private long maxMs = 30_000;
+
+    // User id -> authenticated requests since the last snapshot
+    private final ConcurrentHashMap<Long, LongAdder> hits = new ConcurrentHashMap<>();
+
+    public WarmupService(UserService userService, JwtService jwtService, ObjectMapper objectMapper,
+                         Environment environment) {
+        this.userService = userService;
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+    }
+
+    // Called by the authentication filter for every request it authenticates
+    public void recordAccess(Long userId) {
+        LongAdder counter = hits.get(userId);
+        if (counter == null) {
+            if (hits.size() >= MAX_TRACKED) {
+                return;
+            }
+            counter = hits.computeIfAbsent(userId, id -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        long deadline = started + maxMs;
+
+        List<Long> userIds = readSnapshot(Path.of(snapshotPath));
+        List<User> users = new ArrayList<>();
+        for (Long userId : userIds) {
+            if (System.currentTimeMillis() > deadline) {
+                break;
+            }
+            // Touches the pool, Hibernate's statement and entity metadata caches, and the query plans
+            User user = userService.findById(userId);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+
+        jwtService.warmUp(iterations);
+        warmUpSerialization(users);
+        int requests = warmUpRequests(users, deadline);
+        // Our own requests went through the filter too, they say nothing about real traffic
+        hits.clear();
+
+        log.info("Warm-up finished in {} ms: {} of {} snapshot users loaded, {} local requests",
+                System.currentTimeMillis() - started, users.size(), userIds.size(), requests);
+    }
+
+    // Periodic snapshot, so a crash still leaves a recent one for the next boot
+    @Scheduled(fixedDelayString = "${app.warmup.snapshot-interval-ms:300000}",
+            initialDelayString = "${app.warmup.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!enabled || hits.isEmpty()) {
+            return;
+        }
+        List<Long> hottest = hits.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Long, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(hotUsers)
+                .map(Map.Entry::getKey)
+                .toList();
+        // Start counting afresh so the snapshot follows who is active now rather than all-time totals
+        hits.clear();
+
+        try {
+            writeSnapshot(Path.of(snapshotPath), hottest);
+        } catch (IOException e) {
+            log.warn("Could not write hot user snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        snapshot();
+    }
+
+    // Jackson builds its serializers on first use; do that now for the entities our endpoints return
+    private void warmUpSerialization(List<User> users) {
+        try {
+            for (User user : users) {
+                objectMapper.writeValueAsBytes(user);
+            }
+            objectMapper.writeValueAsBytes(Map.of("success", true, "message", "warm-up", "count", 0L));
+        } catch (IOException e) {
+            log.warn("Serializer warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    // Real requests against our own port drive the filter chain, JwtAuthenticationFilter, MVC and Jackson together
+    private int warmUpRequests(List<User> users, long deadline) {
+        String port = environment.getProperty("local.server.port");
+        if (port == null || users.isEmpty()) {
+            return 0; // No embedded server (tests) or nobody to authenticate as
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        List<HttpRequest> requests = new ArrayList<>(users.size());
+        for (User user : users) {
+            // Never leaves this process and is only ever used for a read
+            String token = jwtService.buildToken(user.getUsername(), user.getId());
+            requests.add(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/profile?userId=" + user.getId()))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build());
+        }
+
+        int sent = 0;
+        while (sent < iterations && System.currentTimeMillis() < deadline) {
+            try {
+                client.send(requests.get(sent % requests.size()), HttpResponse.BodyHandlers.discarding());
+                sent++;
+            } catch (IOException e) {
+                log.warn("Warm-up request failed, skipping the rest: {}", e.getMessage());
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return sent;
+    }
+
+    // Format: int count, then that many long user ids, hottest first
+    static List<Long> readSnapshot(Path path) {
+        if (!Files.exists(path)) {
+            return List.of();
+        }
+        try (InputStream in = Files.newInputStream(path); DataInputStream data = new DataInputStream(in)) {
+            int count = data.readInt();
+            // A corrupt header would otherwise size the list from garbage and fail startup
+            if (count < 0 || count > MAX_TRACKED) {
+                log.warn("Ignoring hot user snapshot {} with invalid count {}", path, count);
+                return List.of();
+            }
+            List<Long> userIds = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                userIds.add(data.readLong());
+            }
+            return userIds;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable hot user snapshot {}: {}", path, e.getMessage());
+            return List.of();
+        }
+    }
+
+    // Written to a temp file and moved into place, so a crash mid-write never leaves a torn snapshot
+    static void writeSnapshot(Path path, List<Long> userIds) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "hot-users", ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp); DataOutputStream data = new DataOutputStream(out)) {
+            data.writeInt(userIds.size());
+            for (Long userId : userIds) {
+                data.writeLong(userId);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,107 @@
+package signature_generator.example.signature_generator.auth.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+// Bounded concurrent map whose entries carry their own absolute expiry time
+public class ExpiringCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    // Bumped before every invalidation, so a value loaded across one can tell it may be stale
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxSize;
+
+    public ExpiringCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    // expiresAt is epoch millis; entries that are already expired are not stored
+    public void put(K key, V value, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    // Read before loading a value, then store it with put(key, value, expiresAt, generation)
+    public long generation() {
+        return generation.get();
+    }
+
+    // Stores the value unless something was invalidated since the generation was read. Checked again after the
+    // put: an invalidation that lands in between either sees the entry and removes it, or we see its bump.
+    public void put(K key, V value, long expiresAt, long loadedAt) {
+        if (generation.get() != loadedAt) {
+            return;
+        }
+        put(key, value, expiresAt);
+        if (generation.get() != loadedAt) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.value() == value) {
+                entries.remove(key, entry);
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<V> predicate) {
+        generation.incrementAndGet();
+        entries.values().removeIf(entry -> predicate.test(entry.value()));
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // One thread at a time drops expired entries, then arbitrary ones until 10% headroom is free
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> entry.expiresAt() <= now);
+
+            int target = maxSize - Math.max(1, maxSize / 10);
+            Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+            while (entries.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
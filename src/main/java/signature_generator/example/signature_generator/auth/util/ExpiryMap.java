@@ -0,0 +1,64 @@
+package signature_generator.example.signature_generator.auth.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Concurrent map whose entries are only ever dropped once their absolute expiry time has passed. Unlike ExpiringCache
+// nothing live is evicted under pressure, so it suits data that must not be forgotten early, such as revocations.
+// Size is bounded by how many entries can be live at once; expired ones are purged whenever the map doubles.
+public class ExpiryMap<K, V> {
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean purging = new AtomicBoolean();
+    private final int purgeThreshold;
+    private volatile int nextPurgeAt;
+
+    public ExpiryMap(int purgeThreshold) {
+        this.purgeThreshold = purgeThreshold;
+        this.nextPurgeAt = purgeThreshold;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    // expiresAt is epoch millis; entries that are already expired are not stored
+    public void put(K key, V value, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (expiresAt <= now) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+        if (entries.size() >= nextPurgeAt) {
+            purgeExpired(now);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // One thread at a time; the next purge waits until the live entries have doubled, so puts stay O(1) amortised
+    private void purgeExpired(long now) {
+        if (!purging.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> entry.expiresAt() <= now);
+            nextPurgeAt = Math.max(purgeThreshold, entries.size() * 2);
+        } finally {
+            purging.set(false);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package signature_generator.example.signature_generator.auth.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Session records in fixed-width slots of a memory-mapped file: off the Java heap and still there after a restart.
+// Each slot is guarded by a seqlock so readers never block and never see a half-written record.
+public class OffHeapSessionStore implements Closeable {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // "SESSION2": files from before every access used native byte order mixed orders and are started afresh
+    private static final long MAGIC = 0x5345_5353_494f_4e32L;
+    private static final int SLOT_SIZE = 64;
+
+    // Slot layout, all fields 8-byte aligned
+    private static final int SEQ = 0;        // even = stable, odd = being written
+    private static final int USER_ID = 8;
+    private static final int EXPIRES_AT = 16; // epoch millis, 0 = free
+    private static final int ISSUED_AT = 24;
+    private static final int HASH_HI = 32;
+    private static final int HASH_LO = 40;
+
+    private static final int READ_ATTEMPTS = 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    // Free slot indexes; one int[] regardless of how many sessions exist
+    private final int[] freeSlots;
+    private int freeCount;
+
+    // Slot 0 holds the header, sessions use slots 1..capacity
+    public OffHeapSessionStore(Path file, int capacity) throws IOException {
+        if (capacity < 1 || (long) (capacity + 1) * SLOT_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Session store capacity out of range: " + capacity);
+        }
+        this.capacity = capacity;
+        this.freeSlots = new int[capacity];
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long size = (long) (capacity + 1) * SLOT_SIZE;
+        boolean compatible = channel.size() == size;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        // Plain getLong/putLong must agree with the LONGS view, which is native order
+        this.buffer.order(ByteOrder.nativeOrder());
+
+        if (!compatible || buffer.getLong(0) != MAGIC || buffer.getInt(8) != SLOT_SIZE) {
+            // New file or a different layout/capacity: start empty rather than misread old slots
+            for (int offset = 0; offset < size; offset += 8) {
+                buffer.putLong(offset, 0L);
+            }
+            buffer.putLong(0, MAGIC);
+            buffer.putInt(8, SLOT_SIZE);
+            buffer.putInt(12, capacity);
+        }
+        recover(System.currentTimeMillis());
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized int free() {
+        return freeCount;
+    }
+
+    // Stores a session and returns its slot, or -1 when every slot holds a live session
+    public int allocate(long userId, long hashHi, long hashLo, long issuedAt, long expiresAt) {
+        int slot = popFreeSlot();
+        if (slot < 0) {
+            sweepExpired(System.currentTimeMillis());
+            slot = popFreeSlot();
+            if (slot < 0) {
+                return -1;
+            }
+        }
+
+        int base = slot * SLOT_SIZE;
+        long seq;
+        // A stale logout may briefly hold the slot's seqlock, wait for it rather than interleave writes
+        while (((seq = (long) LONGS.getVolatile(buffer, base + SEQ)) & 1) != 0
+                || !LONGS.compareAndSet(buffer, base + SEQ, seq, seq + 1)) {
+            Thread.onSpinWait();
+        }
+        buffer.putLong(base + USER_ID, userId);
+        buffer.putLong(base + ISSUED_AT, issuedAt);
+        buffer.putLong(base + HASH_HI, hashHi);
+        buffer.putLong(base + HASH_LO, hashLo);
+        buffer.putLong(base + EXPIRES_AT, expiresAt);
+        LONGS.setVolatile(buffer, base + SEQ, seq + 2);
+        return slot;
+    }
+
+    // User id of the live session in the slot if the secret hash matches, otherwise -1
+    public long lookup(int slot, long hashHi, long hashLo, long now) {
+        if (slot < 1 || slot > capacity) {
+            return -1;
+        }
+
+        int base = slot * SLOT_SIZE;
+        for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+            long before = (long) LONGS.getVolatile(buffer, base + SEQ);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long userId = buffer.getLong(base + USER_ID);
+            long expiresAt = buffer.getLong(base + EXPIRES_AT);
+            long storedHi = buffer.getLong(base + HASH_HI);
+            long storedLo = buffer.getLong(base + HASH_LO);
+            // Keeps the plain reads above from moving past the re-read of SEQ, or a torn record could pass the check
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getVolatile(buffer, base + SEQ) != before) {
+                continue;
+            }
+
+            // Compare both halves before branching so timing doesn't leak which half differed
+            boolean matches = ((storedHi ^ hashHi) | (storedLo ^ hashLo)) == 0;
+            if (!matches || expiresAt == 0) {
+                return -1;
+            }
+            if (expiresAt <= now) {
+                release(slot, hashHi, hashLo);
+                return -1;
+            }
+            return userId;
+        }
+        return -1;
+    }
+
+    // Frees the slot if it still holds the session with this secret hash; false only when it doesn't, never on contention
+    public boolean release(int slot, long hashHi, long hashLo) {
+        if (slot < 1 || slot > capacity) {
+            return false;
+        }
+
+        int base = slot * SLOT_SIZE;
+        long seq;
+        // Writers hold the seqlock for a handful of stores, wait for it as allocate does so a logout is never dropped
+        while (((seq = (long) LONGS.getVolatile(buffer, base + SEQ)) & 1) != 0
+                || !LONGS.compareAndSet(buffer, base + SEQ, seq, seq + 1)) {
+            Thread.onSpinWait();
+        }
+
+        boolean live = buffer.getLong(base + EXPIRES_AT) != 0
+                && buffer.getLong(base + HASH_HI) == hashHi
+                && buffer.getLong(base + HASH_LO) == hashLo;
+        if (live) {
+            buffer.putLong(base + EXPIRES_AT, 0L);
+            buffer.putLong(base + HASH_HI, 0L);
+            buffer.putLong(base + HASH_LO, 0L);
+        }
+        LONGS.setVolatile(buffer, base + SEQ, seq + 2);
+
+        if (live) {
+            pushFreeSlot(slot);
+        }
+        return live;
+    }
+
+    // Reclaims slots whose sessions have expired; O(capacity), only run when the free list runs dry
+    public int sweepExpired(long now) {
+        int reclaimed = 0;
+        for (int slot = 1; slot <= capacity; slot++) {
+            int base = slot * SLOT_SIZE;
+            long expiresAt = (long) LONGS.getVolatile(buffer, base + EXPIRES_AT);
+            if (expiresAt != 0 && expiresAt <= now
+                    && release(slot, buffer.getLong(base + HASH_HI), buffer.getLong(base + HASH_LO))) {
+                reclaimed++;
+            }
+        }
+        return reclaimed;
+    }
+
+    // Flushes dirty pages so sessions survive an OS crash as well as a process restart
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    // Rebuilds the free list after opening; slots caught mid-write by a crash are discarded
+    private void recover(long now) {
+        for (int slot = capacity; slot >= 1; slot--) {
+            int base = slot * SLOT_SIZE;
+            long seq = buffer.getLong(base + SEQ);
+            long expiresAt = buffer.getLong(base + EXPIRES_AT);
+            if ((seq & 1) != 0 || expiresAt <= now) {
+                buffer.putLong(base + SEQ, (seq | 1) + 1);
+                buffer.putLong(base + EXPIRES_AT, 0L);
+                freeSlots[freeCount++] = slot;
+            }
+        }
+    }
+
+    private synchronized int popFreeSlot() {
+        return freeCount == 0 ? -1 : freeSlots[--freeCount];
+    }
+
+    private synchronized void pushFreeSlot(int slot) {
+        freeSlots[freeCount++] = slot;
+    }
+}
@@ -0,0 +1,108 @@
+package signature_generator.example.signature_generator.signature.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import signature_generator.example.signature_generator.auth.model.Permission;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.signature.model.SignatureStat;
+import signature_generator.example.signature_generator.signature.service.PublicLinkService;
+import signature_generator.example.signature_generator.signature.service.SignatureAnalyticsService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/analytics")
+public class AnalyticsController {
+    private static final Duration DEFAULT_RANGE = Duration.ofDays(30);
+    private static final Duration MAX_RANGE = Duration.ofDays(366);
+
+    private final SignatureAnalyticsService signatureAnalyticsService;
+    private final PublicLinkService publicLinkService;
+
+    // Open and click counts per time bucket; "from" and "to" are ISO-8601 instants, the last 30 days by default
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<?> getStats(@AuthenticationPrincipal User loggedInUser,
+                                      @PathVariable("userId") Long userId,
+                                      @RequestParam(value = "from", required = false) String from,
+                                      @RequestParam(value = "to", required = false) String to) {
+        if (!canView(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to view these statistics");
+        }
+
+        Instant end;
+        Instant start;
+        try {
+            end = to == null ? Instant.now() : Instant.parse(to);
+            start = from == null ? end.minus(DEFAULT_RANGE) : Instant.parse(from);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("from and to must be ISO-8601 instants");
+        }
+        if (!start.isBefore(end) || Duration.between(start, end).compareTo(MAX_RANGE) > 0) {
+            return ResponseEntity.badRequest().body("from must be before to and at most " + MAX_RANGE.toDays() + " days earlier");
+        }
+
+        List<SignatureStat> stats = signatureAnalyticsService.findStats(userId, start, end);
+        Map<SignatureStat.Kind, Long> totals = new EnumMap<>(SignatureStat.Kind.class);
+        for (SignatureStat.Kind kind : SignatureStat.Kind.values()) {
+            totals.put(kind, 0L);
+        }
+        List<Map<String, Object>> buckets = new ArrayList<>(stats.size());
+        for (SignatureStat stat : stats) {
+            totals.merge(stat.getKey().getKind(), stat.getHits(), Long::sum);
+
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("bucketStart", stat.getKey().getBucketStart().toString());
+            bucket.put("link", stat.getKey().getLink());
+            bucket.put("kind", stat.getKey().getKind());
+            bucket.put("hits", stat.getHits());
+            buckets.add(bucket);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("userId", userId);
+        response.put("from", start.toString());
+        response.put("to", end.toString());
+        response.put("opens", totals.get(SignatureStat.Kind.OPEN));
+        response.put("clicks", totals.get(SignatureStat.Kind.CLICK));
+        response.put("buckets", buckets);
+        return ResponseEntity.ok(response);
+    }
+
+    // Tracked URLs to place in the signature: an open pixel and a click redirect to the given target
+    @PostMapping("/users/{userId}/links")
+    public ResponseEntity<?> createLinks(@AuthenticationPrincipal User loggedInUser,
+                                         @PathVariable("userId") Long userId,
+                                         @RequestBody Map<String, String> request) {
+        if (!canView(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to create links for this user");
+        }
+
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("pixelUrl", publicLinkService.createOpenPixel(userId));
+            if (request.get("target") != null) {
+                response.put("clickUrl", publicLinkService.createClickLink(userId, request.get("name"), request.get("target")));
+            }
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private static boolean canView(User user, Long userId) {
+        return user != null && (user.getId().equals(userId) || user.hasPermission(Permission.VIEW_ALL_USERS));
+    }
+}
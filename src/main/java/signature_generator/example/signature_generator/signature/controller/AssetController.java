@@ -0,0 +1,203 @@
+package signature_generator.example.signature_generator.signature.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import signature_generator.example.signature_generator.signature.service.LogoService;
+import signature_generator.example.signature_generator.signature.service.PublicLinkService;
+import signature_generator.example.signature_generator.signature.service.QrCodeService;
+import signature_generator.example.signature_generator.signature.service.SignatureAnalyticsService;
+import signature_generator.example.signature_generator.signature.service.SignatureImageService;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// Public assets embedded in signatures, fetched by recipients' mail clients: no auth and, on the hot path, no database.
+// Logos are content-addressed files sent with sendfile; signature images come from the rendered-image cache.
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/assets")
+public class AssetController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Logo names are content hashes and signature links name a version, so a given URL always returns the same bytes
+    private static final String CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+
+    // A signed link whose user has since changed their signature still works, but only briefly cacheable
+    private static final String STALE_CACHE_CONTROL = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic().getHeaderValue();
+
+    // Transparent 1x1 GIF
+    private static final byte[] PIXEL = Base64.getDecoder().decode("R0lGODlhAQABAIAAAAAAAP///yH5BAEAAAAALAAAAAABAAEAAAIBRAA7");
+
+    private final LogoService logoService;
+    private final PublicLinkService publicLinkService;
+    private final SignatureImageService signatureImageService;
+    private final SignatureAnalyticsService signatureAnalyticsService;
+    private final QrCodeService qrCodeService;
+
+    // Served from the rendered-image cache: a hit costs an HMAC check and a write, no database or token work
+    @GetMapping("/signatures/{userId}/{version}/{fileName}")
+    public void getSignature(@PathVariable("userId") Long userId,
+                             @PathVariable("version") String version,
+                             @PathVariable("fileName") String fileName,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int dot = fileName.lastIndexOf('.');
+        SignatureImageService.Format format;
+        try {
+            format = dot > 0 ? SignatureImageService.Format.of(fileName.substring(dot + 1)) : null;
+        } catch (IllegalArgumentException e) {
+            format = null;
+        }
+        if (format == null || !publicLinkService.verify(userId, version, format, fileName.substring(0, dot))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        SignatureImageService.RenderedImage image;
+        try {
+            image = signatureImageService.render(userId, format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        } catch (IllegalStateException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, image.version().equals(version) ? CACHE_CONTROL : STALE_CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ETAG, image.etag());
+        if (image.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(image.contentType());
+        response.setContentLength(image.bytes().length);
+        response.getOutputStream().write(image.bytes());
+    }
+
+    // Same contract as signature images: a hit is an HMAC check and a cached matrix drawing, no database
+    @GetMapping("/qr/{userId}/{version}/{fileName}")
+    public void getQrCode(@PathVariable("userId") Long userId,
+                          @PathVariable("version") String version,
+                          @PathVariable("fileName") String fileName,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int dot = fileName.lastIndexOf('.');
+        QrCodeService.Format format;
+        try {
+            format = dot > 0 ? QrCodeService.Format.of(fileName.substring(dot + 1)) : null;
+        } catch (IllegalArgumentException e) {
+            format = null;
+        }
+        if (format == null || !publicLinkService.verifyQr(userId, version, format, fileName.substring(0, dot))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        QrCodeService.QrImage image;
+        try {
+            image = qrCodeService.render(userId, format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, image.version().equals(version) ? CACHE_CONTROL : STALE_CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ETAG, image.etag());
+        if (image.etag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(image.contentType());
+        response.setContentLength(image.bytes().length);
+        response.getOutputStream().write(image.bytes());
+    }
+
+    // Every fetch must reach us to be counted, so nothing here may be cached
+    @GetMapping("/t/o/{userId}/{fileName}")
+    public void trackOpen(@PathVariable("userId") Long userId, @PathVariable("fileName") String fileName,
+                          HttpServletResponse response) throws IOException {
+        if (!fileName.endsWith(".gif")
+                || !publicLinkService.verifyOpen(userId, fileName.substring(0, fileName.length() - ".gif".length()))) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        signatureAnalyticsService.recordOpen(userId);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        response.setContentType(MediaType.IMAGE_GIF_VALUE);
+        response.setContentLength(PIXEL.length);
+        response.getOutputStream().write(PIXEL);
+    }
+
+    @GetMapping("/t/c/{userId}/{link}/{target}/{signature}")
+    public void trackClick(@PathVariable("userId") Long userId, @PathVariable("link") String link,
+                           @PathVariable("target") String target, @PathVariable("signature") String signature,
+                           HttpServletResponse response) throws IOException {
+        String location = publicLinkService.verifyClick(userId, link, target, signature);
+        if (location == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        signatureAnalyticsService.recordClick(userId, link);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        response.setHeader(HttpHeaders.LOCATION, location);
+        response.setStatus(HttpServletResponse.SC_FOUND);
+    }
+
+    @GetMapping("/logos/{fileName}")
+    public void getLogo(@PathVariable("fileName") String fileName,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = logoService.resolveVariant(fileName);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + fileName + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(MediaType.IMAGE_PNG_VALUE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            response.setContentLengthLong(size);
+
+            // Tomcat copies the file straight from the page cache to the socket once this request completes
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package signature_generator.example.signature_generator.signature.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import signature_generator.example.signature_generator.auth.model.Permission;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.signature.service.PreviewService;
+
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/signature/preview")
+public class PreviewController {
+    private final PreviewService previewService;
+
+    // SSE stream: a "session" event with the id to post edits to, a "snapshot" of every line, then "patch" events
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> openPreview(@AuthenticationPrincipal User loggedInUser,
+                                         @RequestParam("userId") Long userId) {
+        if (loggedInUser == null || !(loggedInUser.getId().equals(userId) || loggedInUser.hasPermission(Permission.VIEW_ALL_USERS))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to preview this signature");
+        }
+
+        try {
+            PreviewService.Session session = previewService.open(loggedInUser.getId(), userId);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    // Stop nginx and similar proxies from buffering the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(session.emitter());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(e.getMessage());
+        }
+    }
+
+    // Field edits with the same names as PUT /update-company-info; nothing is saved, changed lines are pushed on the stream
+    @PostMapping("/{sessionId}")
+    public ResponseEntity<?> edit(@AuthenticationPrincipal User loggedInUser,
+                                  @PathVariable("sessionId") String sessionId,
+                                  @RequestBody Map<String, String> changes) {
+        if (loggedInUser == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to edit this preview");
+        }
+
+        try {
+            Map<PreviewService.Fragment, String> changed = previewService.edit(loggedInUser.getId(), sessionId, changes);
+            return ResponseEntity.accepted().body(Map.of("changed",
+                    changed.keySet().stream().map(fragment -> fragment.name().toLowerCase(Locale.ROOT)).toList()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package signature_generator.example.signature_generator.signature.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import signature_generator.example.signature_generator.auth.model.Permission;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.signature.service.PublicLinkService;
+import signature_generator.example.signature_generator.signature.service.QrCodeService;
+import signature_generator.example.signature_generator.signature.service.SignatureExportService;
+import signature_generator.example.signature_generator.signature.service.SignatureImageService;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/signature")
+public class SignatureController {
+    private final SignatureRenderService signatureRenderService;
+    private final SignatureImageService signatureImageService;
+    private final PublicLinkService publicLinkService;
+    private final SignatureExportService signatureExportService;
+    private final QrCodeService qrCodeService;
+
+    @GetMapping(produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<?> getSignature(@RequestParam("userId") Long userId) {
+        try {
+            return ResponseEntity.ok(signatureRenderService.renderHtml(userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Public, signed URL of the current signature image, safe to embed in outgoing email
+    @GetMapping("/link")
+    public ResponseEntity<?> getSignatureLink(@AuthenticationPrincipal User loggedInUser,
+                                              @RequestParam("userId") Long userId,
+                                              @RequestParam(value = "format", defaultValue = "png") String format) {
+        // The link never expires, so only the owner or an admin may mint one
+        if (!canView(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to link this signature");
+        }
+
+        try {
+            String url = publicLinkService.createImageLink(userId, SignatureImageService.Format.of(format));
+            return ResponseEntity.ok(Map.of("url", url));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        }
+    }
+
+    // Signature as an image for mail clients that strip HTML; the ETag lets clients revalidate without a re-download
+    @GetMapping("/image")
+    public ResponseEntity<?> getSignatureImage(@RequestParam("userId") Long userId,
+                                               @RequestParam(value = "format", defaultValue = "png") String format,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            SignatureImageService.RenderedImage image =
+                    signatureImageService.render(userId, SignatureImageService.Format.of(format));
+
+            CacheControl cacheControl = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePrivate();
+            if (image.etag().equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(image.etag()).cacheControl(cacheControl).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(image.contentType()))
+                    .eTag(image.etag())
+                    .cacheControl(cacheControl)
+                    .body(image.bytes());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        }
+    }
+
+    // QR code with the user's contact card, for adding to a signature
+    @GetMapping("/qr")
+    public ResponseEntity<?> getQrCode(@AuthenticationPrincipal User loggedInUser,
+                                       @RequestParam("userId") Long userId,
+                                       @RequestParam(value = "format", defaultValue = "png") String format,
+                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // The contact card carries the user's phone and email
+        if (!canView(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to view this QR code");
+        }
+
+        try {
+            QrCodeService.QrImage image = qrCodeService.render(userId, QrCodeService.Format.of(format));
+
+            CacheControl cacheControl = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePrivate();
+            if (image.etag().equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(image.etag()).cacheControl(cacheControl).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(image.contentType()))
+                    .eTag(image.etag())
+                    .cacheControl(cacheControl)
+                    .body(image.bytes());
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Public, signed URL of the current QR code, safe to embed in outgoing email
+    @GetMapping("/qr/link")
+    public ResponseEntity<?> getQrCodeLink(@AuthenticationPrincipal User loggedInUser,
+                                           @RequestParam("userId") Long userId,
+                                           @RequestParam(value = "format", defaultValue = "png") String format) {
+        if (!canView(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to link this QR code");
+        }
+
+        try {
+            return ResponseEntity.ok(Map.of("url", publicLinkService.createQrLink(userId, QrCodeService.Format.of(format))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // ZIP with the signature for every mail client (or just the "formats" asked for), streamed as it is built
+    @GetMapping("/export")
+    public ResponseEntity<?> exportSignature(@AuthenticationPrincipal User loggedInUser,
+                                             @RequestParam("userId") Long userId,
+                                             @RequestParam(value = "formats", required = false) List<String> formats) {
+        if (!canView(loggedInUser, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to export this signature");
+        }
+
+        try {
+            Set<SignatureExportService.Format> selected = SignatureExportService.Format.parse(formats);
+            List<SignatureRenderService.SignatureContent> contents = signatureExportService.load(List.of(userId));
+            if (contents.isEmpty()) {
+                return ResponseEntity.badRequest().body("User not found");
+            }
+            return zip("signature-" + userId + ".zip", contents, selected);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Same bundle for many users at once, one folder each; unknown ids are left out
+    @PostMapping("/export")
+    public ResponseEntity<?> exportSignatures(@AuthenticationPrincipal User loggedInUser,
+                                              @RequestBody Map<String, List<?>> request) {
+        if (loggedInUser == null || !loggedInUser.hasPermission(Permission.VIEW_ALL_USERS)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can export signatures in bulk");
+        }
+
+        try {
+            Set<Long> userIds = new LinkedHashSet<>();
+            for (Object id : request.getOrDefault("userIds", List.of())) {
+                userIds.add(Long.valueOf(String.valueOf(id)));
+            }
+            if (userIds.isEmpty()) {
+                return ResponseEntity.badRequest().body("userIds is required");
+            }
+            List<String> formats = request.getOrDefault("formats", List.of()).stream().map(String::valueOf).toList();
+
+            Set<SignatureExportService.Format> selected = SignatureExportService.Format.parse(formats);
+            return zip("signatures.zip", signatureExportService.load(userIds), selected);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private static boolean canView(User user, Long userId) {
+        return user != null && (user.getId().equals(userId) || user.hasPermission(Permission.VIEW_ALL_USERS));
+    }
+
+    private ResponseEntity<StreamingResponseBody> zip(String fileName, List<SignatureRenderService.SignatureContent> contents,
+                                                      Set<SignatureExportService.Format> formats) {
+        StreamingResponseBody body = out -> signatureExportService.write(contents, formats, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+}
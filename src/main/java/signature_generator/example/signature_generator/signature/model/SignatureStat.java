@@ -0,0 +1,46 @@
+package signature_generator.example.signature_generator.signature.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+// Open/click counts per user, link and time bucket. Rows are only ever written by batched upserts
+// from SignatureAnalyticsService; the entity exists so the table and its key are part of the schema.
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "signature_stats")
+public class SignatureStat {
+
+    public enum Kind { OPEN, CLICK }
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false)
+    private long hits;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(nullable = false, length = 32)
+        private String link;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 8)
+        private Kind kind;
+
+        @Column(name = "bucket_start", nullable = false)
+        private Instant bucketStart;
+    }
+}
@@ -0,0 +1,48 @@
+package signature_generator.example.signature_generator.signature.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import signature_generator.example.signature_generator.signature.model.SignatureStat;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+// Plain JDBC for the analytics table: one batched upsert per flush, never a write per hit
+@Repository
+@RequiredArgsConstructor
+public class SignatureStatRepository {
+
+    private static final String UPSERT = "insert into signature_stats (user_id, link, kind, bucket_start, hits) "
+            + "values (?, ?, ?, ?, ?) "
+            + "on conflict (user_id, link, kind, bucket_start) do update set hits = signature_stats.hits + excluded.hits";
+
+    private static final String FIND_BY_USER = "select link, kind, bucket_start, hits from signature_stats "
+            + "where user_id = ? and bucket_start >= ? and bucket_start < ? order by bucket_start, link, kind";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void addAll(Map<SignatureStat.Key, Long> counts) {
+        List<Map.Entry<SignatureStat.Key, Long>> rows = List.copyOf(counts.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT, rows, rows.size(), (ps, row) -> {
+            SignatureStat.Key key = row.getKey();
+            ps.setLong(1, key.getUserId());
+            ps.setString(2, key.getLink());
+            ps.setString(3, key.getKind().name());
+            ps.setTimestamp(4, Timestamp.from(key.getBucketStart()));
+            ps.setLong(5, row.getValue());
+        });
+    }
+
+    public List<SignatureStat> findByUser(Long userId, Instant from, Instant to) {
+        return jdbcTemplate.query(FIND_BY_USER, (rs, rowNum) -> {
+            SignatureStat stat = new SignatureStat();
+            stat.setKey(new SignatureStat.Key(userId, rs.getString("link"),
+                    SignatureStat.Kind.valueOf(rs.getString("kind")), rs.getTimestamp("bucket_start").toInstant()));
+            stat.setHits(rs.getLong("hits"));
+            return stat;
+        }, userId, Timestamp.from(from), Timestamp.from(to));
+    }
+}
@@ -0,0 +1,185 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.auth.service.CompanyService;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+// Company logos: decoded once on upload, resized into fixed PNG variants in the background and stored on local disk
+// as "<sha256 of the upload>-<size>.png". The names never change meaning, so they can be cached by anyone forever.
+@Service
+public class LogoService {
+
+    private static final Logger log = LoggerFactory.getLogger(LogoService.class);
+
+    // Longest side of each variant, in pixels
+    public static final List<Integer> VARIANT_SIZES = List.of(64, 128, 256);
+    public static final int SIGNATURE_SIZE = 128;
+
+    private static final int MAX_DIMENSION = 4096;
+    private static final Pattern VARIANT_NAME = Pattern.compile("[0-9a-f]{64}-(64|128|256)\\.png");
+
+    private final CompanyService companyService;
+    private final Executor imageExecutor;
+
+    @Value("${app.assets.logo-dir:data/logos}")
+    private String logoDir = "data/logos";
+
+    @Value("${app.assets.logo-max-bytes:2097152}")
+    private long maxBytes = 2_097_152;
+
+    public LogoService(CompanyService companyService, @Qualifier("imageExecutor") Executor imageExecutor) {
+        this.companyService = companyService;
+        this.imageExecutor = imageExecutor;
+    }
+
+    public static String variantName(String logoHash, int size) {
+        return logoHash + "-" + size + ".png";
+    }
+
+    // Validates the upload and queues the resize; the company switches to the new logo once every variant is written
+    public String upload(Long companyId, byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("Logo file is empty");
+        }
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException("Logo is larger than " + maxBytes + " bytes");
+        }
+        if (companyService.findById(companyId) == null) {
+            throw new IllegalArgumentException("Company not found");
+        }
+        checkDimensions(bytes);
+
+        String logoHash = sha256(bytes);
+        try {
+            imageExecutor.execute(() -> process(companyId, logoHash, bytes));
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Logo pipeline is busy, try again shortly", e);
+        }
+        return logoHash;
+    }
+
+    // On-disk file for a public variant name, or null if the name is not one we could have produced
+    public Path resolveVariant(String fileName) {
+        if (fileName == null || !VARIANT_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        Path file = Path.of(logoDir).resolve(fileName);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private void process(Long companyId, String logoHash, byte[] bytes) {
+        try {
+            Path dir = Path.of(logoDir);
+            Files.createDirectories(dir);
+
+            // Same logo uploaded again, by this or another company: the variants are already there
+            boolean complete = VARIANT_SIZES.stream().allMatch(size -> Files.exists(dir.resolve(variantName(logoHash, size))));
+            if (!complete) {
+                BufferedImage source = ImageIO.read(new ByteArrayInputStream(bytes));
+                if (source == null) {
+                    log.warn("Logo {} for company {} could not be decoded", logoHash, companyId);
+                    return;
+                }
+                for (int size : VARIANT_SIZES) {
+                    writeAtomically(dir, variantName(logoHash, size), resize(source, size));
+                }
+            }
+
+            companyService.setLogo(companyId, logoHash);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Logo pipeline failed for company {}: {}", companyId, e.getMessage());
+        }
+    }
+
+    // Reads just the header, so an oversized image is refused before any pixels are decoded
+    private static void checkDimensions(byte[] bytes) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Logo is not a supported image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if (reader.getWidth(0) > MAX_DIMENSION || reader.getHeight(0) > MAX_DIMENSION) {
+                    throw new IllegalArgumentException("Logo may be at most " + MAX_DIMENSION + " pixels on each side");
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Logo is not a supported image");
+        }
+    }
+
+    // Bilinear halving steps down to the target: close to bicubic quality at a fraction of its cost on large sources
+    static BufferedImage resize(BufferedImage source, int longestSide) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) longestSide / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static void writeAtomically(Path dir, String name, BufferedImage image) throws IOException {
+        Path temp = Files.createTempFile(dir, "logo", ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(file)) {
+                if (!ImageIO.write(image, "png", out)) {
+                    throw new IOException("No PNG encoder");
+                }
+            }
+            Files.move(temp, dir.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // Gone already once the move succeeded; otherwise don't leave a partial file behind
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
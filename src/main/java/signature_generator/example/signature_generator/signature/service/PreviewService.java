@@ -0,0 +1,272 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService.SignatureContent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Live signature preview: the client opens an SSE stream, posts field edits, and receives only the lines they changed.
+// Each session keeps the last HTML sent per line and a set of dirty lines; edits that arrive while a push is in flight
+// just overwrite that state, so a slow client costs one pending copy per line, not a queue per keystroke.
+// Pushes run on virtual threads, so a client that stops reading blocks a cheap thread rather than a request worker.
+@Service
+public class PreviewService {
+
+    // Lines of the built-in layout, in display order
+    public enum Fragment { LOGO, NAME, TITLE, EMAIL, PHONE, COMPANY, MISSION, ADDRESS, SITE }
+
+    // Editable fields, named as in PUT /update-company-info, and the lines that depend on each
+    private static final Map<String, Set<Fragment>> EDITABLE = Map.of(
+            "userTitle", EnumSet.of(Fragment.TITLE),
+            "companyName", EnumSet.of(Fragment.COMPANY, Fragment.LOGO),
+            "missionStatement", EnumSet.of(Fragment.MISSION),
+            "companyAddress", EnumSet.of(Fragment.ADDRESS),
+            "companySite", EnumSet.of(Fragment.SITE));
+
+    private final SignatureRenderService signatureRenderService;
+
+    @Value("${app.public-base-url:}")
+    private String publicBaseUrl = "";
+
+    @Value("${app.preview.max-sessions:1000}")
+    private int maxSessions = 1000;
+
+    @Value("${app.preview.max-sessions-per-user:3}")
+    private int maxSessionsPerUser = 3;
+
+    @Value("${app.preview.max-field-chars:1000}")
+    private int maxFieldChars = 1000;
+
+    @Value("${app.preview.timeout-ms:600000}")
+    private long timeoutMs = 600_000;
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    // Slots are reserved before a session exists and freed when it closes, so concurrent opens can't overshoot the limits
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final ConcurrentHashMap<Long, Integer> openPerOwner = new ConcurrentHashMap<>();
+    private final ExecutorService pushExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PreviewService(SignatureRenderService signatureRenderService) {
+        this.signatureRenderService = signatureRenderService;
+    }
+
+    // All state for one open stream; guarded by its own monitor
+    public static final class Session {
+        private final String id = UUID.randomUUID().toString();
+        private final Long ownerId;
+        private final SseEmitter emitter;
+        private final SignatureContent base;
+        private final Map<String, String> edits = new ConcurrentHashMap<>();
+        private final EnumMap<Fragment, String> sent = new EnumMap<>(Fragment.class);
+        private final EnumSet<Fragment> dirty = EnumSet.noneOf(Fragment.class);
+        private boolean pushing;
+        private boolean closed;
+
+        private Session(Long ownerId, SseEmitter emitter, SignatureContent base) {
+            this.ownerId = ownerId;
+            this.emitter = emitter;
+            this.base = base;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public SseEmitter emitter() {
+            return emitter;
+        }
+    }
+
+    // Starts a session on the user's saved signature; the first events carry the session id and every line
+    public Session open(Long ownerId, Long userId) {
+        reserveSlot(ownerId);
+        Session session;
+        try {
+            session = new Session(ownerId, new SseEmitter(timeoutMs), signatureRenderService.loadContent(userId));
+        } catch (RuntimeException e) {
+            releaseSlot(ownerId);
+            throw e;
+        }
+        session.emitter.onCompletion(() -> close(session));
+        session.emitter.onTimeout(() -> close(session));
+        session.emitter.onError(error -> close(session));
+        sessions.put(session.id, session);
+
+        synchronized (session) {
+            for (Fragment fragment : Fragment.values()) {
+                session.sent.put(fragment, render(session, fragment));
+            }
+        }
+        try {
+            session.emitter.send(SseEmitter.event().name("session").data(Map.of("sessionId", session.id), MediaType.APPLICATION_JSON));
+            session.emitter.send(SseEmitter.event().name("snapshot").data(payload(session.sent), MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            close(session);
+            throw new IllegalStateException("Preview stream closed", e);
+        }
+        return session;
+    }
+
+    // Applies the edits, re-renders only the lines they touch, and queues those that actually changed
+    public Map<Fragment, String> edit(Long ownerId, String sessionId, Map<String, String> changes) {
+        Session session = sessions.get(sessionId);
+        if (session == null || !session.ownerId.equals(ownerId)) {
+            throw new IllegalArgumentException("Preview session not found");
+        }
+
+        EnumSet<Fragment> affected = EnumSet.noneOf(Fragment.class);
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            Set<Fragment> fragments = EDITABLE.get(change.getKey());
+            if (fragments == null) {
+                throw new IllegalArgumentException("Field " + change.getKey() + " cannot be previewed");
+            }
+            if (change.getValue() != null && change.getValue().length() > maxFieldChars) {
+                throw new IllegalArgumentException(change.getKey() + " may be at most " + maxFieldChars + " characters");
+            }
+            affected.addAll(fragments);
+        }
+
+        Map<Fragment, String> changed = new EnumMap<>(Fragment.class);
+        boolean startPush;
+        synchronized (session) {
+            if (session.closed) {
+                throw new IllegalArgumentException("Preview session not found");
+            }
+            changes.forEach((field, value) -> session.edits.put(field, value == null ? "" : value));
+            for (Fragment fragment : affected) {
+                String html = render(session, fragment);
+                if (!html.equals(session.sent.get(fragment))) {
+                    session.sent.put(fragment, html);
+                    session.dirty.add(fragment);
+                    changed.put(fragment, html);
+                }
+            }
+            startPush = !session.dirty.isEmpty() && !session.pushing;
+            if (startPush) {
+                session.pushing = true;
+            }
+        }
+        if (startPush) {
+            pushExecutor.execute(() -> push(session));
+        }
+        return changed;
+    }
+
+    // Sends dirty lines until none are left; lines edited during a send go out in the next round with their latest HTML
+    private void push(Session session) {
+        while (true) {
+            Map<Fragment, String> batch = new EnumMap<>(Fragment.class);
+            synchronized (session) {
+                if (session.dirty.isEmpty() || session.closed) {
+                    session.pushing = false;
+                    return;
+                }
+                for (Fragment fragment : session.dirty) {
+                    batch.put(fragment, session.sent.get(fragment));
+                }
+                session.dirty.clear();
+            }
+            try {
+                session.emitter.send(SseEmitter.event().name("patch").data(payload(batch), MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                session.emitter.completeWithError(e);
+                close(session);
+                return;
+            }
+        }
+    }
+
+    // Completion, timeout, error and a failed send may all close the same session; only the first frees its slot
+    private void close(Session session) {
+        synchronized (session) {
+            if (session.closed) {
+                return;
+            }
+            session.closed = true;
+            session.dirty.clear();
+        }
+        sessions.remove(session.id, session);
+        releaseSlot(session.ownerId);
+    }
+
+    private void reserveSlot(Long ownerId) {
+        if (openSessions.incrementAndGet() > maxSessions) {
+            openSessions.decrementAndGet();
+            throw new IllegalStateException("Too many open previews, try again shortly");
+        }
+        boolean[] reserved = new boolean[1];
+        openPerOwner.compute(ownerId, (owner, open) -> {
+            int count = open == null ? 0 : open;
+            if (count >= maxSessionsPerUser) {
+                return open;
+            }
+            reserved[0] = true;
+            return count + 1;
+        });
+        if (!reserved[0]) {
+            openSessions.decrementAndGet();
+            throw new IllegalArgumentException("At most " + maxSessionsPerUser + " previews can be open at once");
+        }
+    }
+
+    private void releaseSlot(Long ownerId) {
+        openPerOwner.computeIfPresent(ownerId, (owner, open) -> open > 1 ? open - 1 : null);
+        openSessions.decrementAndGet();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sessions.values().forEach(session -> session.emitter.complete());
+        sessions.clear();
+        openPerOwner.clear();
+        openSessions.set(0);
+        pushExecutor.shutdownNow();
+    }
+
+    private String render(Session session, Fragment fragment) {
+        SignatureContent base = session.base;
+        return switch (fragment) {
+            case LOGO -> SignatureRenderService.logoHtml(publicBaseUrl, base.logoHash(), value(session, "companyName", base.companyName()));
+            case NAME -> SignatureRenderService.lineHtml("Name", base.name());
+            case TITLE -> SignatureRenderService.lineHtml("Title", value(session, "userTitle", base.title()));
+            case EMAIL -> SignatureRenderService.lineHtml("Email", base.email());
+            case PHONE -> SignatureRenderService.lineHtml("Phone", base.phone());
+            case COMPANY -> SignatureRenderService.lineHtml("Company", value(session, "companyName", base.companyName()));
+            case MISSION -> SignatureRenderService.lineHtml("Mission", value(session, "missionStatement", base.missionStatement()));
+            case ADDRESS -> SignatureRenderService.lineHtml("Address", value(session, "companyAddress", base.address()));
+            case SITE -> SignatureRenderService.siteHtml(value(session, "companySite", base.site()));
+        };
+    }
+
+    private static String value(Session session, String field, String saved) {
+        return session.edits.getOrDefault(field, saved);
+    }
+
+    private static List<Map<String, String>> payload(Map<Fragment, String> fragments) {
+        List<Map<String, String>> lines = new ArrayList<>(fragments.size());
+        fragments.forEach((fragment, html) -> {
+            Map<String, String> line = new LinkedHashMap<>();
+            line.put("id", fragment.name().toLowerCase(Locale.ROOT));
+            line.put("html", html);
+            lines.add(line);
+        });
+        return lines;
+    }
+}
@@ -0,0 +1,114 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.auth.util.HmacSigner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+// Public URLs for embedding in emails: signature images, QR codes, tracking pixels and click redirects.
+// Every part of a link is covered by the HMAC, so it is checked without a database lookup and can't be pointed
+// at another user or target. Links don't expire; rotating app.public-links.secret invalidates all of them.
+@Service
+public class PublicLinkService {
+
+    // Versions are built from "u", "p", "c", "t", digits, dots and dashes (see SignatureRenderService.loadContent)
+    private static final Pattern VERSION = Pattern.compile("[A-Za-z0-9.-]{1,64}");
+
+    private final SignatureImageService signatureImageService;
+    private final QrCodeService qrCodeService;
+
+    @Value("${app.public-links.secret:${jwt.secret.key}}")
+    private String secret;
+
+    @Value("${app.public-base-url:}")
+    private String publicBaseUrl = "";
+
+    private HmacSigner signer;
+
+    public PublicLinkService(SignatureImageService signatureImageService, QrCodeService qrCodeService) {
+        this.signatureImageService = signatureImageService;
+        this.qrCodeService = qrCodeService;
+    }
+
+    @PostConstruct
+    void init() {
+        signer = new HmacSigner(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Renders (or reuses) the current image so the link names the exact version it will serve
+    public String createImageLink(Long userId, SignatureImageService.Format format) {
+        SignatureImageService.RenderedImage image = signatureImageService.render(userId, format);
+        return publicBaseUrl + "/assets/signatures/" + userId + "/" + image.version() + "/"
+                + signer.sign(payload(userId, image.version(), format)) + "." + format.extension();
+    }
+
+    public boolean verify(Long userId, String version, SignatureImageService.Format format, String signature) {
+        return userId != null && version != null && VERSION.matcher(version).matches()
+                && signer.verify(payload(userId, version, format), signature);
+    }
+
+    // Contact QR code, versioned like image links: /assets/qr/{userId}/{version}/{signature}.{format}
+    public String createQrLink(Long userId, QrCodeService.Format format) {
+        QrCodeService.QrImage image = qrCodeService.render(userId, format);
+        return publicBaseUrl + "/assets/qr/" + userId + "/" + image.version() + "/"
+                + signer.sign(qrPayload(userId, image.version(), format)) + "." + format.extension();
+    }
+
+    public boolean verifyQr(Long userId, String version, QrCodeService.Format format, String signature) {
+        return userId != null && version != null && VERSION.matcher(version).matches()
+                && signer.verify(qrPayload(userId, version, format), signature);
+    }
+
+    // Tracking pixel counted as a signature open: /assets/t/o/{userId}/{signature}.gif
+    public String createOpenPixel(Long userId) {
+        return publicBaseUrl + "/assets/t/o/" + userId + "/" + signer.sign("open:" + userId) + ".gif";
+    }
+
+    public boolean verifyOpen(Long userId, String signature) {
+        return userId != null && signer.verify("open:" + userId, signature);
+    }
+
+    // Redirect counted as a click: /assets/t/c/{userId}/{link}/{base64url target}/{signature}
+    // The target is signed too, so the endpoint can't be used as an open redirect
+    public String createClickLink(Long userId, String link, String target) {
+        if (!SignatureAnalyticsService.isValidLinkName(link)) {
+            throw new IllegalArgumentException("Link name must be 1-32 lowercase letters, digits or dashes");
+        }
+        if (target == null || !(target.startsWith("https://") || target.startsWith("http://"))) {
+            throw new IllegalArgumentException("Link target must be an http(s) URL");
+        }
+        return publicBaseUrl + "/assets/t/c/" + userId + "/" + link + "/"
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(target.getBytes(StandardCharsets.UTF_8))
+                + "/" + signer.sign(clickPayload(userId, link, target));
+    }
+
+    // Signed target of a click link, or null when the link was not issued by us
+    public String verifyClick(Long userId, String link, String encodedTarget, String signature) {
+        if (userId == null || !SignatureAnalyticsService.isValidLinkName(link)) {
+            return null;
+        }
+        String target;
+        try {
+            target = new String(Base64.getUrlDecoder().decode(encodedTarget), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return signer.verify(clickPayload(userId, link, target), signature) ? target : null;
+    }
+
+    private static String qrPayload(Long userId, String version, QrCodeService.Format format) {
+        return "qr:" + userId + ":" + version + ":" + format.extension();
+    }
+
+    private static String clickPayload(Long userId, String link, String target) {
+        return "click:" + userId + ":" + link + ":" + target;
+    }
+
+    private static String payload(Long userId, String version, SignatureImageService.Format format) {
+        return "signature:" + userId + ":" + version + ":" + format.extension();
+    }
+}
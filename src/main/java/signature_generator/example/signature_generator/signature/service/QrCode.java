@@ -0,0 +1,515 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// QR code encoder (ISO/IEC 18004, byte mode, versions 1-40) working on packed bit rows: a 177x177 symbol is 531 longs.
+// Encode once, then draw as often as needed; instances are immutable.
+public final class QrCode {
+
+    public enum Ecc {
+        // Bits as they appear in the format information
+        LOW(1), MEDIUM(0), QUARTILE(3), HIGH(2);
+
+        private final int formatBits;
+
+        Ecc(int formatBits) {
+            this.formatBits = formatBits;
+        }
+    }
+
+    private static final int MIN_VERSION = 1;
+    private static final int MAX_VERSION = 40;
+
+    // Indexed [ecc.ordinal()][version]; index 0 is unused
+    private static final byte[][] ECC_CODEWORDS_PER_BLOCK = {
+            {-1, 7, 10, 15, 20, 26, 18, 20, 24, 30, 18, 20, 24, 26, 30, 22, 24, 28, 30, 28, 28, 28, 28, 30, 30, 26, 28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+            {-1, 10, 16, 26, 18, 24, 16, 18, 22, 22, 26, 30, 22, 22, 24, 24, 28, 28, 26, 26, 26, 26, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28},
+            {-1, 13, 22, 18, 26, 18, 24, 18, 22, 20, 24, 28, 26, 24, 20, 30, 24, 28, 28, 26, 30, 28, 30, 30, 30, 30, 28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+            {-1, 17, 28, 22, 16, 22, 28, 26, 26, 24, 28, 24, 28, 22, 24, 24, 30, 28, 28, 26, 28, 30, 24, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30}};
+
+    private static final byte[][] NUM_ERROR_CORRECTION_BLOCKS = {
+            {-1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 4, 4, 4, 4, 4, 6, 6, 6, 6, 7, 8, 8, 9, 9, 10, 12, 12, 12, 13, 14, 15, 16, 17, 18, 19, 19, 20, 21, 22, 24, 25},
+            {-1, 1, 1, 1, 2, 2, 4, 4, 4, 5, 5, 5, 8, 9, 9, 10, 10, 11, 13, 14, 16, 17, 17, 18, 20, 21, 23, 25, 26, 28, 29, 31, 33, 35, 37, 38, 40, 43, 45, 47, 49},
+            {-1, 1, 1, 2, 2, 4, 4, 6, 6, 8, 8, 8, 10, 12, 16, 12, 17, 16, 18, 21, 20, 23, 23, 25, 27, 29, 34, 34, 35, 38, 40, 43, 45, 48, 51, 53, 56, 59, 62, 65, 68},
+            {-1, 1, 1, 2, 4, 4, 4, 5, 6, 8, 8, 11, 11, 16, 16, 18, 16, 19, 21, 25, 25, 25, 34, 30, 32, 35, 37, 40, 42, 45, 48, 51, 54, 57, 60, 63, 66, 70, 74, 77, 81}};
+
+    private static final int PENALTY_N1 = 3;
+    private static final int PENALTY_N2 = 3;
+    private static final int PENALTY_N3 = 40;
+    private static final int PENALTY_N4 = 10;
+
+    private final int version;
+    private final int size;
+    private final int stride;
+    private final long[] modules;
+
+    private QrCode(int version, long[] modules) {
+        this.version = version;
+        this.size = version * 4 + 17;
+        this.stride = (size + 63) >>> 6;
+        this.modules = modules;
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isDark(int x, int y) {
+        return x >= 0 && y >= 0 && x < size && y < size && get(modules, stride, x, y);
+    }
+
+    // One bit per pixel, black on white; border is the quiet zone in modules (the spec asks for 4)
+    public BufferedImage toImage(int scale, int border) {
+        int side = (size + border * 2) * scale;
+        BufferedImage image = new BufferedImage(side, side, BufferedImage.TYPE_BYTE_BINARY);
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        // 1 is white in the default binary palette
+        Arrays.fill(pixels, (byte) 0xFF);
+        int rowBytes = (side + 7) / 8;
+        for (int y = 0; y < side; y++) {
+            int moduleY = y / scale - border;
+            for (int x = 0; x < side; x++) {
+                if (isDark(x / scale - border, moduleY)) {
+                    pixels[y * rowBytes + (x >>> 3)] &= (byte) ~(0x80 >>> (x & 7));
+                }
+            }
+        }
+        return image;
+    }
+
+    // A single path with one subpath per horizontal run of dark modules, scaled by the viewer
+    public String toSvg(int border) {
+        int side = size + border * 2;
+        StringBuilder svg = new StringBuilder(size * size);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" viewBox=\"0 0 ")
+                .append(side).append(' ').append(side).append("\" shape-rendering=\"crispEdges\">")
+                .append("<rect width=\"100%\" height=\"100%\" fill=\"#FFFFFF\"/><path fill=\"#000000\" d=\"");
+        for (int y = 0; y < size; y++) {
+            int x = 0;
+            while (x < size) {
+                if (!isDark(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < size && isDark(x, y)) {
+                    x++;
+                }
+                svg.append('M').append(start + border).append(',').append(y + border)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+        return svg.append("\"/></svg>").toString();
+    }
+
+    // Smallest symbol that holds the text as UTF-8 at the given error correction level
+    public static QrCode encodeText(String text, Ecc ecc) {
+        return encodeBytes(text.getBytes(StandardCharsets.UTF_8), ecc);
+    }
+
+    public static QrCode encodeBytes(byte[] data, Ecc ecc) {
+        int version = MIN_VERSION;
+        int capacityBits;
+        while (true) {
+            capacityBits = numDataCodewords(version, ecc) * 8;
+            int countBits = version <= 9 ? 8 : 16;
+            if (4 + countBits + data.length * 8L <= capacityBits) {
+                break;
+            }
+            if (++version > MAX_VERSION) {
+                throw new IllegalArgumentException("Too much data for a QR code: " + data.length + " bytes");
+            }
+        }
+
+        // Mode indicator (byte mode), character count, data, terminator, byte padding, pad codewords
+        BitBuffer bits = new BitBuffer(capacityBits);
+        bits.append(0b0100, 4);
+        bits.append(data.length, version <= 9 ? 8 : 16);
+        for (byte b : data) {
+            bits.append(b & 0xFF, 8);
+        }
+        bits.append(0, Math.min(4, capacityBits - bits.length));
+        bits.append(0, (8 - bits.length % 8) % 8);
+        for (int pad = 0xEC; bits.length < capacityBits; pad ^= 0xEC ^ 0x11) {
+            bits.append(pad, 8);
+        }
+
+        byte[] codewords = addEccAndInterleave(bits.toBytes(), version, ecc);
+        return new Builder(version, ecc).build(codewords);
+    }
+
+    // Draws the symbol, finds the mask with the lowest penalty and applies it
+    private static final class Builder {
+        private final int version;
+        private final Ecc ecc;
+        private final int size;
+        private final int stride;
+        private final long[] modules;
+        private final long[] function;
+
+        Builder(int version, Ecc ecc) {
+            this.version = version;
+            this.ecc = ecc;
+            this.size = version * 4 + 17;
+            this.stride = (size + 63) >>> 6;
+            this.modules = new long[size * stride];
+            this.function = new long[size * stride];
+        }
+
+        QrCode build(byte[] codewords) {
+            drawFunctionPatterns();
+            drawCodewords(codewords);
+
+            int bestMask = 0;
+            int bestPenalty = Integer.MAX_VALUE;
+            for (int mask = 0; mask < 8; mask++) {
+                applyMask(mask);
+                drawFormatBits(mask);
+                int penalty = penaltyScore();
+                if (penalty < bestPenalty) {
+                    bestMask = mask;
+                    bestPenalty = penalty;
+                }
+                // XOR again to undo
+                applyMask(mask);
+            }
+            applyMask(bestMask);
+            drawFormatBits(bestMask);
+            return new QrCode(version, modules);
+        }
+
+        private void setFunction(int x, int y, boolean dark) {
+            set(modules, stride, x, y, dark);
+            set(function, stride, x, y, true);
+        }
+
+        private void drawFunctionPatterns() {
+            for (int i = 0; i < size; i++) {
+                setFunction(6, i, i % 2 == 0);
+                setFunction(i, 6, i % 2 == 0);
+            }
+
+            drawFinder(3, 3);
+            drawFinder(size - 4, 3);
+            drawFinder(3, size - 4);
+
+            int[] positions = alignmentPositions(version);
+            int last = positions.length - 1;
+            for (int i = 0; i <= last; i++) {
+                for (int j = 0; j <= last; j++) {
+                    // The three corners already hold finder patterns
+                    if (!(i == 0 && j == 0 || i == 0 && j == last || i == last && j == 0)) {
+                        drawAlignment(positions[i], positions[j]);
+                    }
+                }
+            }
+
+            // Reserves the format areas; real bits are drawn once the mask is known
+            drawFormatBits(0);
+            drawVersion();
+        }
+
+        private void drawFinder(int x, int y) {
+            for (int dy = -4; dy <= 4; dy++) {
+                for (int dx = -4; dx <= 4; dx++) {
+                    int distance = Math.max(Math.abs(dx), Math.abs(dy));
+                    int xx = x + dx;
+                    int yy = y + dy;
+                    if (xx >= 0 && xx < size && yy >= 0 && yy < size) {
+                        setFunction(xx, yy, distance != 2 && distance != 4);
+                    }
+                }
+            }
+        }
+
+        private void drawAlignment(int x, int y) {
+            for (int dy = -2; dy <= 2; dy++) {
+                for (int dx = -2; dx <= 2; dx++) {
+                    setFunction(x + dx, y + dy, Math.max(Math.abs(dx), Math.abs(dy)) != 1);
+                }
+            }
+        }
+
+        private void drawFormatBits(int mask) {
+            int data = ecc.formatBits << 3 | mask;
+            int remainder = data;
+            for (int i = 0; i < 10; i++) {
+                remainder = (remainder << 1) ^ ((remainder >>> 9) * 0x537);
+            }
+            int bits = (data << 10 | remainder) ^ 0x5412;
+
+            for (int i = 0; i <= 5; i++) {
+                setFunction(8, i, bit(bits, i));
+            }
+            setFunction(8, 7, bit(bits, 6));
+            setFunction(8, 8, bit(bits, 7));
+            setFunction(7, 8, bit(bits, 8));
+            for (int i = 9; i < 15; i++) {
+                setFunction(14 - i, 8, bit(bits, i));
+            }
+
+            for (int i = 0; i < 8; i++) {
+                setFunction(size - 1 - i, 8, bit(bits, i));
+            }
+            for (int i = 8; i < 15; i++) {
+                setFunction(8, size - 15 + i, bit(bits, i));
+            }
+            setFunction(8, size - 8, true);
+        }
+
+        private void drawVersion() {
+            if (version < 7) {
+                return;
+            }
+            int remainder = version;
+            for (int i = 0; i < 12; i++) {
+                remainder = (remainder << 1) ^ ((remainder >>> 11) * 0x1F25);
+            }
+            int bits = version << 12 | remainder;
+            for (int i = 0; i < 18; i++) {
+                boolean dark = bit(bits, i);
+                int a = size - 11 + i % 3;
+                int b = i / 3;
+                setFunction(a, b, dark);
+                setFunction(b, a, dark);
+            }
+        }
+
+        // Zigzag through column pairs from the bottom right, skipping the vertical timing column
+        private void drawCodewords(byte[] codewords) {
+            int i = 0;
+            for (int right = size - 1; right >= 1; right -= 2) {
+                if (right == 6) {
+                    right = 5;
+                }
+                for (int vertical = 0; vertical < size; vertical++) {
+                    for (int j = 0; j < 2; j++) {
+                        int x = right - j;
+                        boolean upward = ((right + 1) & 2) == 0;
+                        int y = upward ? size - 1 - vertical : vertical;
+                        if (!get(function, stride, x, y) && i < codewords.length * 8) {
+                            set(modules, stride, x, y, bit(codewords[i >>> 3], 7 - (i & 7)));
+                            i++;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void applyMask(int mask) {
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    boolean invert = switch (mask) {
+                        case 0 -> (x + y) % 2 == 0;
+                        case 1 -> y % 2 == 0;
+                        case 2 -> x % 3 == 0;
+                        case 3 -> (x + y) % 3 == 0;
+                        case 4 -> (x / 3 + y / 2) % 2 == 0;
+                        case 5 -> x * y % 2 + x * y % 3 == 0;
+                        case 6 -> (x * y % 2 + x * y % 3) % 2 == 0;
+                        default -> ((x + y) % 2 + x * y % 3) % 2 == 0;
+                    };
+                    if (invert && !get(function, stride, x, y)) {
+                        modules[y * stride + (x >>> 6)] ^= 1L << (x & 63);
+                    }
+                }
+            }
+        }
+
+        private int penaltyScore() {
+            int penalty = 0;
+            int dark = 0;
+
+            for (int a = 0; a < size; a++) {
+                // Same-colour runs and finder-like sequences along row a, then column a
+                for (int pass = 0; pass < 2; pass++) {
+                    boolean runColor = false;
+                    int run = 0;
+                    int window = 0;
+                    for (int b = 0; b < size; b++) {
+                        boolean color = pass == 0 ? dark(b, a) : dark(a, b);
+                        if (pass == 0 && color) {
+                            dark++;
+                        }
+                        if (b > 0 && color == runColor) {
+                            run++;
+                            if (run == 5) {
+                                penalty += PENALTY_N1;
+                            } else if (run > 5) {
+                                penalty++;
+                            }
+                        } else {
+                            runColor = color;
+                            run = 1;
+                        }
+                        window = ((window << 1) | (color ? 1 : 0)) & 0x7FF;
+                        if (b >= 10 && (window == 0b10111010000 || window == 0b00001011101)) {
+                            penalty += PENALTY_N3;
+                        }
+                    }
+                }
+            }
+
+            for (int y = 0; y < size - 1; y++) {
+                for (int x = 0; x < size - 1; x++) {
+                    boolean color = dark(x, y);
+                    if (color == dark(x + 1, y) && color == dark(x, y + 1) && color == dark(x + 1, y + 1)) {
+                        penalty += PENALTY_N2;
+                    }
+                }
+            }
+
+            int total = size * size;
+            int k = (Math.abs(dark * 20 - total * 10) + total - 1) / total - 1;
+            return penalty + k * PENALTY_N4;
+        }
+
+        private boolean dark(int x, int y) {
+            return get(modules, stride, x, y);
+        }
+    }
+
+    private static byte[] addEccAndInterleave(byte[] data, int version, Ecc ecc) {
+        int numBlocks = NUM_ERROR_CORRECTION_BLOCKS[ecc.ordinal()][version];
+        int blockEccLength = ECC_CODEWORDS_PER_BLOCK[ecc.ordinal()][version];
+        int rawCodewords = numRawDataModules(version) / 8;
+        int numShortBlocks = numBlocks - rawCodewords % numBlocks;
+        int shortBlockLength = rawCodewords / numBlocks;
+
+        byte[] divisor = reedSolomonDivisor(blockEccLength);
+        byte[][] blocks = new byte[numBlocks][];
+        for (int i = 0, k = 0; i < numBlocks; i++) {
+            int dataLength = shortBlockLength - blockEccLength + (i < numShortBlocks ? 0 : 1);
+            byte[] block = Arrays.copyOf(Arrays.copyOfRange(data, k, k + dataLength), shortBlockLength + 1);
+            k += dataLength;
+            byte[] remainder = reedSolomonRemainder(block, dataLength, divisor);
+            System.arraycopy(remainder, 0, block, block.length - blockEccLength, blockEccLength);
+            blocks[i] = block;
+        }
+
+        // Short blocks carry a padding byte at the data/ecc boundary that is not transmitted
+        byte[] result = new byte[rawCodewords];
+        int n = 0;
+        for (int i = 0; i < blocks[0].length; i++) {
+            for (int j = 0; j < numBlocks; j++) {
+                if (i != shortBlockLength - blockEccLength || j >= numShortBlocks) {
+                    result[n++] = blocks[j][i];
+                }
+            }
+        }
+        return result;
+    }
+
+    private static byte[] reedSolomonDivisor(int degree) {
+        byte[] result = new byte[degree];
+        result[degree - 1] = 1;
+        int root = 1;
+        for (int i = 0; i < degree; i++) {
+            for (int j = 0; j < result.length; j++) {
+                result[j] = (byte) multiply(result[j] & 0xFF, root);
+                if (j + 1 < result.length) {
+                    result[j] ^= result[j + 1];
+                }
+            }
+            root = multiply(root, 0x02);
+        }
+        return result;
+    }
+
+    private static byte[] reedSolomonRemainder(byte[] data, int length, byte[] divisor) {
+        byte[] result = new byte[divisor.length];
+        for (int i = 0; i < length; i++) {
+            int factor = (data[i] ^ result[0]) & 0xFF;
+            System.arraycopy(result, 1, result, 0, result.length - 1);
+            result[result.length - 1] = 0;
+            for (int j = 0; j < result.length; j++) {
+                result[j] ^= (byte) multiply(divisor[j] & 0xFF, factor);
+            }
+        }
+        return result;
+    }
+
+    // Multiplication in GF(2^8) modulo x^8 + x^4 + x^3 + x^2 + 1
+    private static int multiply(int x, int y) {
+        int z = 0;
+        for (int i = 7; i >= 0; i--) {
+            z = (z << 1) ^ ((z >>> 7) * 0x11D);
+            z ^= ((y >>> i) & 1) * x;
+        }
+        return z;
+    }
+
+    private static int[] alignmentPositions(int version) {
+        if (version == 1) {
+            return new int[0];
+        }
+        int count = version / 7 + 2;
+        int step = (version * 8 + count * 3 + 5) / (count * 4 - 4) * 2;
+        int[] result = new int[count];
+        result[0] = 6;
+        for (int i = count - 1, position = version * 4 + 10; i >= 1; i--, position -= step) {
+            result[i] = position;
+        }
+        return result;
+    }
+
+    // Modules left for data and ecc once every function pattern is placed
+    private static int numRawDataModules(int version) {
+        int result = (16 * version + 128) * version + 64;
+        if (version >= 2) {
+            int count = version / 7 + 2;
+            result -= (25 * count - 10) * count - 55;
+            if (version >= 7) {
+                result -= 36;
+            }
+        }
+        return result;
+    }
+
+    private static int numDataCodewords(int version, Ecc ecc) {
+        return numRawDataModules(version) / 8
+                - ECC_CODEWORDS_PER_BLOCK[ecc.ordinal()][version] * NUM_ERROR_CORRECTION_BLOCKS[ecc.ordinal()][version];
+    }
+
+    private static boolean get(long[] matrix, int stride, int x, int y) {
+        return (matrix[y * stride + (x >>> 6)] >>> (x & 63) & 1L) != 0;
+    }
+
+    private static void set(long[] matrix, int stride, int x, int y, boolean value) {
+        int index = y * stride + (x >>> 6);
+        long mask = 1L << (x & 63);
+        matrix[index] = value ? matrix[index] | mask : matrix[index] & ~mask;
+    }
+
+    private static boolean bit(int value, int index) {
+        return ((value >>> index) & 1) != 0;
+    }
+
+    private static final class BitBuffer {
+        private final byte[] bytes;
+        private int length;
+
+        BitBuffer(int capacityBits) {
+            bytes = new byte[(capacityBits + 7) / 8];
+        }
+
+        void append(int value, int count) {
+            for (int i = count - 1; i >= 0; i--, length++) {
+                if (((value >>> i) & 1) != 0) {
+                    bytes[length >>> 3] |= (byte) (0x80 >>> (length & 7));
+                }
+            }
+        }
+
+        byte[] toBytes() {
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.auth.service.InvalidationBus;
+import signature_generator.example.signature_generator.auth.util.ExpiringCache;
+import signature_generator.example.signature_generator.auth.util.SingleFlight;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService.SignatureContent;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// QR codes carrying the user's contact card, for signatures.
+// The symbol is encoded once per user and kept as a bit matrix until a user, profile or company write invalidates it;
+// PNG and SVG are drawn from that matrix on first request and kept alongside it.
+@Service
+public class QrCodeService implements InvalidationBus.Listener {
+
+    public enum Format {
+        PNG("png", "image/png"),
+        SVG("svg", "image/svg+xml");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported QR format: " + name);
+        }
+    }
+
+    public record QrImage(byte[] bytes, String contentType, String version, String etag) {
+    }
+
+    // Medium correction survives the scaling and recompression mail clients apply to images
+    private static final QrCode.Ecc ECC = QrCode.Ecc.MEDIUM;
+    private static final int QUIET_ZONE = 4;
+
+    private final SignatureRenderService signatureRenderService;
+
+    @Value("${app.signature.qr.cache-entries:10000}")
+    private int cacheEntries = 10_000;
+
+    @Value("${app.signature.qr.cache-ttl-ms:86400000}")
+    private long cacheTtlMs = 86_400_000;
+
+    @Value("${app.signature.qr.module-px:4}")
+    private int modulePx = 4;
+
+    private ExpiringCache<Long, Encoded> codes;
+    private final SingleFlight<Long, Encoded> encodes = new SingleFlight<>();
+
+    // Encoded symbol for one version of a user's content, with its drawings filled in lazily
+    private static final class Encoded {
+        private final QrCode code;
+        private final String version;
+        private final Long companyId;
+        private final AtomicReferenceArray<QrImage> images = new AtomicReferenceArray<>(Format.values().length);
+
+        private Encoded(QrCode code, String version, Long companyId) {
+            this.code = code;
+            this.version = version;
+            this.companyId = companyId;
+        }
+    }
+
+    public QrCodeService(SignatureRenderService signatureRenderService) {
+        this.signatureRenderService = signatureRenderService;
+    }
+
+    @PostConstruct
+    void init() {
+        codes = new ExpiringCache<>(cacheEntries);
+    }
+
+    public QrImage render(Long userId, Format format) {
+        Encoded encoded = codes.get(userId);
+        if (encoded == null) {
+            encoded = encodes.execute(userId, () -> {
+                long generation = codes.generation();
+                SignatureContent content = signatureRenderService.loadContent(userId);
+                Encoded fresh = new Encoded(QrCode.encodeText(vCard(content), ECC), content.versionKey(), content.companyId());
+                codes.put(userId, fresh, System.currentTimeMillis() + cacheTtlMs, generation);
+                return fresh;
+            });
+        }
+
+        QrImage image = encoded.images.get(format.ordinal());
+        if (image == null) {
+            // Two threads may draw the same image at once; both results are identical, either may win
+            image = draw(encoded, format);
+            encoded.images.compareAndSet(format.ordinal(), null, image);
+        }
+        return image;
+    }
+
+    @Override
+    public void onInvalidation(InvalidationBus.Event event) {
+        switch (event.type()) {
+            case USER -> codes.invalidate(Long.valueOf(event.key()));
+            case COMPANY -> {
+                Long companyId = Long.valueOf(event.key());
+                codes.invalidateIf(encoded -> companyId.equals(encoded.companyId));
+            }
+            case ALL -> codes.clear();
+            default -> {
+            }
+        }
+    }
+
+    // Only what a phone needs to save the contact; fewer bytes means a smaller symbol that scans from further away
+    static String vCard(SignatureContent content) {
+        StringBuilder card = new StringBuilder(160);
+        card.append("BEGIN:VCARD\r\nVERSION:3.0\r\n");
+        card.append("FN:").append(SignatureExportService.vCardText(content.name())).append("\r\n");
+        appendProperty(card, "ORG", content.companyName());
+        appendProperty(card, "TITLE", content.title());
+        appendProperty(card, "EMAIL;TYPE=INTERNET", content.email());
+        appendProperty(card, "TEL", content.phone());
+        if (content.site() != null && !content.site().isBlank()) {
+            String site = content.site().trim();
+            appendProperty(card, "URL", site.startsWith("http") ? site : "https://" + site);
+        }
+        return card.append("END:VCARD\r\n").toString();
+    }
+
+    private static void appendProperty(StringBuilder card, String name, String value) {
+        if (value != null && !value.isBlank()) {
+            card.append(name).append(':').append(SignatureExportService.vCardText(value.trim())).append("\r\n");
+        }
+    }
+
+    private QrImage draw(Encoded encoded, Format format) {
+        byte[] bytes = switch (format) {
+            case PNG -> png(encoded.code);
+            case SVG -> encoded.code.toSvg(QUIET_ZONE).getBytes(StandardCharsets.UTF_8);
+        };
+        String etag = "\"qr-" + encoded.version + "-" + format.extension + "\"";
+        return new QrImage(bytes, format.contentType, encoded.version, etag);
+    }
+
+    private byte[] png(QrCode code) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(2048);
+        try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(buffer)) {
+            if (!ImageIO.write(code.toImage(modulePx, QUIET_ZONE), "png", out)) {
+                throw new IllegalStateException("No PNG encoder");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
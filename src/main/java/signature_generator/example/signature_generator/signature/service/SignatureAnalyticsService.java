@@ -0,0 +1,147 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.signature.model.SignatureStat;
+import signature_generator.example.signature_generator.signature.repository.SignatureStatRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// Signature open/click counting that never writes to the database per hit.
+// Hits land in striped LongAdders keyed by user, link, kind and time bucket; every flush interval the counters are
+// swapped out and upserted to signature_stats in one JDBC batch.
+@Service
+public class SignatureAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SignatureAnalyticsService.class);
+
+    public static final String OPEN_LINK = "signature";
+    private static final Pattern LINK_NAME = Pattern.compile("[a-z0-9-]{1,32}");
+
+    // Distinct counters per generation; past this, hits are dropped rather than growing the heap without bound
+    private static final int MAX_KEYS = 500_000;
+
+    private final SignatureStatRepository signatureStatRepository;
+
+    @Value("${app.analytics.bucket-ms:3600000}")
+    private long bucketMs = 3_600_000;
+
+    // Double buffering: hits go to "current"; a flush retires it and writes out the one retired a cycle earlier,
+    // by which time no thread can still be incrementing it
+    private volatile ConcurrentHashMap<SignatureStat.Key, LongAdder> current = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<SignatureStat.Key, LongAdder> retired = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    public SignatureAnalyticsService(SignatureStatRepository signatureStatRepository) {
+        this.signatureStatRepository = signatureStatRepository;
+    }
+
+    public static boolean isValidLinkName(String link) {
+        return link != null && LINK_NAME.matcher(link).matches();
+    }
+
+    public void recordOpen(Long userId) {
+        record(userId, OPEN_LINK, SignatureStat.Kind.OPEN);
+    }
+
+    public void recordClick(Long userId, String link) {
+        record(userId, link, SignatureStat.Kind.CLICK);
+    }
+
+    private void record(Long userId, String link, SignatureStat.Kind kind) {
+        SignatureStat.Key key = new SignatureStat.Key(userId, link, kind, bucketStart(System.currentTimeMillis()));
+        ConcurrentHashMap<SignatureStat.Key, LongAdder> counters = current;
+        LongAdder counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() >= MAX_KEYS) {
+                dropped.increment();
+                return;
+            }
+            counter = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.flush-ms:10000}")
+    public synchronized void flush() {
+        ConcurrentHashMap<SignatureStat.Key, LongAdder> toWrite = retired;
+        retired = current;
+        current = new ConcurrentHashMap<>();
+        write(toWrite);
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        // Requests have stopped by now, so both generations are safe to write
+        ConcurrentHashMap<SignatureStat.Key, LongAdder> all = retired;
+        current.forEach((key, counter) -> all.computeIfAbsent(key, k -> new LongAdder()).add(counter.sum()));
+        current = new ConcurrentHashMap<>();
+        retired = new ConcurrentHashMap<>();
+        write(all);
+    }
+
+    private void write(ConcurrentHashMap<SignatureStat.Key, LongAdder> counters) {
+        long droppedHits = dropped.sumThenReset();
+        if (droppedHits > 0) {
+            log.warn("Dropped {} signature hits, more than {} distinct counters in one flush interval", droppedHits, MAX_KEYS);
+        }
+        if (counters.isEmpty()) {
+            return;
+        }
+
+        Map<SignatureStat.Key, Long> counts = new HashMap<>(counters.size() * 2);
+        counters.forEach((key, counter) -> counts.put(key, counter.sum()));
+        try {
+            signatureStatRepository.addAll(counts);
+        } catch (RuntimeException e) {
+            // Keep the counts for the next attempt instead of losing them
+            log.warn("Could not flush {} signature counters, retrying next interval: {}", counts.size(), e.getMessage());
+            ConcurrentHashMap<SignatureStat.Key, LongAdder> next = retired;
+            counts.forEach((key, hits) -> next.computeIfAbsent(key, k -> new LongAdder()).add(hits));
+        }
+    }
+
+    // Stored buckets plus whatever hasn't been flushed yet, merged per bucket
+    public List<SignatureStat> findStats(Long userId, Instant from, Instant to) {
+        Map<SignatureStat.Key, Long> merged = new HashMap<>();
+        for (SignatureStat stat : signatureStatRepository.findByUser(userId, from, to)) {
+            merged.merge(stat.getKey(), stat.getHits(), Long::sum);
+        }
+        for (ConcurrentHashMap<SignatureStat.Key, LongAdder> counters : List.of(retired, current)) {
+            counters.forEach((key, counter) -> {
+                if (key.getUserId().equals(userId)
+                        && !key.getBucketStart().isBefore(from) && key.getBucketStart().isBefore(to)) {
+                    merged.merge(key, counter.sum(), Long::sum);
+                }
+            });
+        }
+
+        List<SignatureStat> stats = new ArrayList<>(merged.size());
+        merged.forEach((key, hits) -> {
+            SignatureStat stat = new SignatureStat();
+            stat.setKey(key);
+            stat.setHits(hits);
+            stats.add(stat);
+        });
+        stats.sort(Comparator.comparing((SignatureStat stat) -> stat.getKey().getBucketStart())
+                .thenComparing(stat -> stat.getKey().getLink())
+                .thenComparing(stat -> stat.getKey().getKind()));
+        return stats;
+    }
+
+    private Instant bucketStart(long now) {
+        return Instant.ofEpochMilli(now - now % bucketMs);
+    }
+}
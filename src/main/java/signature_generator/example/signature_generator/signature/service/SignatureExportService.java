@@ -0,0 +1,336 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService.SignatureContent;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Signatures packaged for each mail client, streamed as one ZIP.
+// Each user's content is loaded once and turned into a Card: every field escaped and linked up front. The inline-styled
+// HTML body and the plain-text body are then built once per user and wrapped differently per client.
+@Service
+public class SignatureExportService {
+
+    public enum Format {
+        // Outlook signature folder: .htm plus the .txt it uses for plain-text mail
+        OUTLOOK("outlook"),
+        // Fragment for Gmail's signature editor: inline styles only, Gmail drops <style> and classes
+        GMAIL("gmail"),
+        // .mailsignature file with the MIME headers Apple Mail keeps signatures in
+        APPLE_MAIL("apple-mail"),
+        TEXT("text"),
+        VCARD("vcard");
+
+        private final String id;
+
+        Format(String id) {
+            this.id = id;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.id.equalsIgnoreCase(name) || format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + name);
+        }
+
+        public static Set<Format> parse(Collection<String> names) {
+            if (names == null || names.isEmpty()) {
+                return EnumSet.allOf(Format.class);
+            }
+            Set<Format> formats = EnumSet.noneOf(Format.class);
+            for (String name : names) {
+                formats.add(of(name.trim()));
+            }
+            return formats;
+        }
+    }
+
+    private static final String FONT = "font-family:Arial,Helvetica,sans-serif;font-size:14px;color:#555555;";
+    private static final String NAME_STYLE = "font-size:16px;font-weight:bold;color:#333333;";
+    private static final String LINK_STYLE = "color:#0078D4;text-decoration:none;";
+    private static final int VCARD_LINE_OCTETS = 75;
+
+    private final SignatureRenderService signatureRenderService;
+
+    @Value("${app.public-base-url:}")
+    private String publicBaseUrl = "";
+
+    @Value("${app.signature.export.max-users:1000}")
+    private int maxUsers = 1000;
+
+    public SignatureExportService(SignatureRenderService signatureRenderService) {
+        this.signatureRenderService = signatureRenderService;
+    }
+
+    // Content for each known user, in request order; unknown ids are skipped
+    public List<SignatureContent> load(Collection<Long> userIds) {
+        if (userIds.size() > maxUsers) {
+            throw new IllegalArgumentException("At most " + maxUsers + " users can be exported at once");
+        }
+        List<SignatureContent> contents = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            try {
+                contents.add(signatureRenderService.loadContent(userId));
+            } catch (IllegalArgumentException e) {
+                // Deleted since the list was built, nothing to export
+            }
+        }
+        return contents;
+    }
+
+    // One folder per user, one or two files per format; nothing is buffered beyond a single user's output
+    public void write(List<SignatureContent> contents, Set<Format> formats, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        StringBuilder html = new StringBuilder(2048);
+        StringBuilder text = new StringBuilder(512);
+        StringBuilder scratch = new StringBuilder(2048);
+
+        for (SignatureContent content : contents) {
+            Card card = new Card(content, publicBaseUrl);
+            String folder = content.userId() + "-" + slug(content.name()) + "/";
+
+            html.setLength(0);
+            text.setLength(0);
+            if (formats.contains(Format.OUTLOOK) || formats.contains(Format.GMAIL) || formats.contains(Format.APPLE_MAIL)) {
+                appendHtmlBody(html, card);
+            }
+            if (formats.contains(Format.OUTLOOK) || formats.contains(Format.TEXT)) {
+                appendText(text, card);
+            }
+
+            for (Format format : formats) {
+                switch (format) {
+                    case OUTLOOK -> {
+                        scratch.setLength(0);
+                        appendOutlookDocument(scratch, html);
+                        entry(zip, writer, folder + "outlook/signature.htm", scratch);
+                        entry(zip, writer, folder + "outlook/signature.txt", text);
+                    }
+                    case GMAIL -> entry(zip, writer, folder + "gmail.html", html);
+                    case APPLE_MAIL -> {
+                        scratch.setLength(0);
+                        appendAppleMailSignature(scratch, html, content);
+                        entry(zip, writer, folder + "apple-mail.mailsignature", scratch);
+                    }
+                    case TEXT -> entry(zip, writer, folder + "signature.txt", text);
+                    case VCARD -> {
+                        scratch.setLength(0);
+                        appendVCard(scratch, card);
+                        entry(zip, writer, folder + "contact.vcf", scratch);
+                    }
+                }
+            }
+        }
+        writer.flush();
+        zip.finish();
+    }
+
+    private static void entry(ZipOutputStream zip, Writer writer, String name, CharSequence body) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.append(body);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    // Table layout with inline styles: the one shape Outlook's Word engine, Gmail and Apple Mail all render alike
+    private static void appendHtmlBody(StringBuilder html, Card card) {
+        html.append("<table cellpadding=\"0\" cellspacing=\"0\" border=\"0\" style=\"").append(FONT).append("\">");
+        if (card.logoUrl != null) {
+            html.append("<tr><td style=\"padding:0 0 8px 0;\"><img src=\"").append(card.logoUrl)
+                    .append("\" alt=\"").append(card.companyName.html).append("\" height=\"64\"")
+                    .append(" style=\"display:block;border:0;height:64px;\"></td></tr>");
+        }
+        if (card.name != null) {
+            html.append("<tr><td style=\"").append(NAME_STYLE).append("\">").append(card.name.html).append("</td></tr>");
+        }
+        for (Field field : card.lines) {
+            html.append("<tr><td>");
+            if (field.label != null) {
+                html.append("<strong>").append(field.label).append(":</strong> ");
+            }
+            if (field.href != null) {
+                html.append("<a href=\"").append(field.href).append("\" style=\"").append(LINK_STYLE).append("\">")
+                        .append(field.html).append("</a>");
+            } else {
+                html.append(field.html);
+            }
+            html.append("</td></tr>");
+        }
+        html.append("</table>");
+    }
+
+    private static void appendText(StringBuilder text, Card card) {
+        if (card.name != null) {
+            text.append(card.name.text).append("\r\n");
+        }
+        for (Field field : card.lines) {
+            if (field.label != null) {
+                text.append(field.label).append(": ");
+            }
+            text.append(field.text).append("\r\n");
+        }
+    }
+
+    private static void appendOutlookDocument(StringBuilder out, CharSequence body) {
+        out.append("<html xmlns:o=\"urn:schemas-microsoft-com:office:office\" ")
+                .append("xmlns:w=\"urn:schemas-microsoft-com:office:word\" xmlns=\"http://www.w3.org/TR/REC-html40\">")
+                .append("<head><meta http-equiv=\"Content-Type\" content=\"text/html; charset=utf-8\">")
+                .append("<meta name=\"ProgId\" content=\"Word.Document\">")
+                .append("<style>p.MsoNormal,li.MsoNormal,div.MsoNormal{margin:0;}</style></head>")
+                .append("<body lang=\"EN-US\"><div class=\"WordSection1\">").append(body).append("</div></body></html>");
+    }
+
+    private static void appendAppleMailSignature(StringBuilder out, CharSequence body, SignatureContent content) {
+        out.append("Content-Transfer-Encoding: 8bit\r\n")
+                .append("Content-Type: text/html;\r\n\tcharset=utf-8\r\n")
+                .append("Message-Id: <signature-").append(content.userId()).append('-').append(content.versionKey())
+                .append("@signature-generator>\r\n")
+                .append("Mime-Version: 1.0 (Mac OS X Mail 16.0)\r\n\r\n")
+                .append("<body style=\"word-wrap: break-word; -webkit-nbsp-mode: space; line-break: after-white-space;\">")
+                .append(body).append("</body>");
+    }
+
+    // vCard 3.0: the version Outlook, Apple Contacts and Gmail all import
+    private static void appendVCard(StringBuilder out, Card card) {
+        SignatureContent content = card.content;
+        vCardLine(out, "BEGIN:VCARD");
+        vCardLine(out, "VERSION:3.0");
+        String name = vCardText(content.name());
+        vCardLine(out, "FN:" + name);
+        vCardLine(out, "N:" + name + ";;;;");
+        if (notBlank(content.title())) {
+            vCardLine(out, "TITLE:" + vCardText(content.title()));
+        }
+        if (notBlank(content.companyName())) {
+            vCardLine(out, "ORG:" + vCardText(content.companyName()));
+        }
+        if (notBlank(content.email())) {
+            vCardLine(out, "EMAIL;TYPE=INTERNET,WORK:" + vCardText(content.email()));
+        }
+        if (notBlank(content.phone())) {
+            vCardLine(out, "TEL;TYPE=WORK,VOICE:" + vCardText(content.phone()));
+        }
+        if (notBlank(content.address())) {
+            vCardLine(out, "ADR;TYPE=WORK:;;" + vCardText(content.address()) + ";;;;");
+        }
+        if (card.siteHref != null) {
+            vCardLine(out, "URL:" + vCardText(card.siteHref));
+        }
+        if (card.logoUrl != null) {
+            vCardLine(out, "LOGO;VALUE=uri:" + card.logoUrl);
+        }
+        vCardLine(out, "END:VCARD");
+    }
+
+    // Folds at 75 octets without splitting a UTF-8 sequence, continuation lines start with a space
+    private static void vCardLine(StringBuilder out, String line) {
+        int octets = 0;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + size > VCARD_LINE_OCTETS) {
+                out.append("\r\n ");
+                octets = 1;
+            }
+            out.appendCodePoint(codePoint);
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        out.append("\r\n");
+    }
+
+    static String vCardText(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\', ',', ';' -> escaped.append('\\').append(c);
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> {
+                }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String slug(String name) {
+        if (name == null) {
+            return "signature";
+        }
+        String slug = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-+|-+$)", "");
+        if (slug.length() > 40) {
+            slug = slug.substring(0, 40);
+        }
+        return slug.isEmpty() ? "signature" : slug;
+    }
+
+    private static boolean notBlank(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    // A value in both its plain and HTML-escaped forms, with an optional link target
+    record Field(String label, String text, String html, String href) {
+
+        static Field of(String label, String value, String href) {
+            return new Field(label, value, HtmlUtils.htmlEscape(value), href == null ? null : HtmlUtils.htmlEscape(href));
+        }
+    }
+
+    // Everything the writers need, derived once per user
+    static final class Card {
+        final SignatureContent content;
+        final Field name;
+        final Field companyName;
+        final List<Field> lines = new ArrayList<>(7);
+        final String siteHref;
+        final String logoUrl;
+
+        Card(SignatureContent content, String publicBaseUrl) {
+            this.content = content;
+            this.name = notBlank(content.name()) ? Field.of(null, content.name(), null) : null;
+            this.companyName = Field.of(null, content.companyName() == null ? "" : content.companyName(), null);
+
+            String site = notBlank(content.site()) ? content.site().trim() : null;
+            this.siteHref = site == null ? null : site.startsWith("http") ? site : "https://" + site;
+            this.logoUrl = content.logoHash() == null ? null : HtmlUtils.htmlEscape((publicBaseUrl == null ? "" : publicBaseUrl)
+                    + "/assets/logos/" + LogoService.variantName(content.logoHash(), LogoService.SIGNATURE_SIZE));
+
+            add(null, content.title(), null);
+            add("Email", content.email(), notBlank(content.email()) ? "mailto:" + content.email().trim() : null);
+            add("Phone", content.phone(), notBlank(content.phone()) ? "tel:" + content.phone().replaceAll("[^0-9+]", "") : null);
+            add(null, content.companyName(), null);
+            add(null, content.missionStatement(), null);
+            add(null, content.address(), null);
+            add("Website", site, siteHref);
+        }
+
+        private void add(String label, String value, String href) {
+            if (notBlank(value)) {
+                lines.add(Field.of(label, value, href));
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import signature_generator.example.signature_generator.auth.service.InvalidationBus;
+import signature_generator.example.signature_generator.auth.util.ExpiringCache;
+import signature_generator.example.signature_generator.auth.util.SingleFlight;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService.SignatureContent;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Signatures as images for mail clients that strip HTML.
+// Rasterising runs on the bounded imageExecutor, each worker reusing one canvas, its font metrics and its encoder;
+// output is cached per user and format until a write to the user, profile or company invalidates it.
+@Service
+public class SignatureImageService implements InvalidationBus.Listener {
+
+    // Bump when the layout below changes, so stale images are never served under a matching ETag
+    public static final int TEMPLATE_VERSION = 1;
+
+    private static final int WIDTH = 600;
+    private static final int MAX_HEIGHT = 240;
+    private static final int PADDING = 12;
+
+    private static final Font NAME_FONT = new Font(Font.SANS_SERIF, Font.BOLD, 16);
+    private static final Font LINE_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 14);
+    private static final Color NAME_COLOR = new Color(0x33, 0x33, 0x33);
+    private static final Color LINE_COLOR = new Color(0x55, 0x55, 0x55);
+
+    public enum Format {
+        PNG("png", "image/png"),
+        WEBP("webp", "image/webp");
+
+        private final String imageIoName;
+        private final String contentType;
+
+        Format(String imageIoName, String contentType) {
+            this.imageIoName = imageIoName;
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return imageIoName;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.imageIoName.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported image format: " + name);
+        }
+    }
+
+    // version identifies the content and template behind the bytes, it changes whenever the image would
+    public record RenderedImage(byte[] bytes, String contentType, String version, String etag, Long companyId) {
+    }
+
+    private final SignatureRenderService signatureRenderService;
+    private final Executor imageExecutor;
+
+    @Value("${app.signature.image.cache-entries:10000}")
+    private int cacheEntries = 10_000;
+
+    @Value("${app.signature.image.cache-ttl-ms:3600000}")
+    private long cacheTtlMs = 3_600_000;
+
+    @Value("${app.signature.image.render-timeout-ms:5000}")
+    private long renderTimeoutMs = 5_000;
+
+    // "userId:format" -> encoded image
+    private ExpiringCache<String, RenderedImage> images;
+    // A burst of requests for one uncached signature rasterises it once
+    private final SingleFlight<String, RenderedImage> renders = new SingleFlight<>();
+
+    // WebP is only available when an ImageIO plugin for it is on the classpath
+    private final Set<Format> supportedFormats = EnumSet.noneOf(Format.class);
+
+    // One canvas per worker thread: the pool is bounded, so is the memory behind these
+    private final ThreadLocal<Canvas> canvases = ThreadLocal.withInitial(Canvas::new);
+
+    public SignatureImageService(SignatureRenderService signatureRenderService,
+                                 @Qualifier("imageExecutor") Executor imageExecutor) {
+        this.signatureRenderService = signatureRenderService;
+        this.imageExecutor = imageExecutor;
+    }
+
+    @PostConstruct
+    void init() {
+        images = new ExpiringCache<>(cacheEntries);
+        for (Format format : Format.values()) {
+            if (ImageIO.getImageWritersByFormatName(format.imageIoName).hasNext()) {
+                supportedFormats.add(format);
+            }
+        }
+    }
+
+    // Cached image, or one rendered now; IllegalStateException when the render pool is saturated
+    public RenderedImage render(Long userId, Format format) {
+        if (!supportedFormats.contains(format)) {
+            throw new IllegalArgumentException("No " + format.imageIoName.toUpperCase(Locale.ROOT) + " encoder is installed");
+        }
+
+        String key = cacheKey(userId, format);
+        RenderedImage cached = images.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        return renders.execute(key, () -> {
+            long generation = images.generation();
+            SignatureContent content = signatureRenderService.loadContent(userId);
+            RenderedImage rendered = rasterise(content, format);
+            images.put(key, rendered, System.currentTimeMillis() + cacheTtlMs, generation);
+            return rendered;
+        });
+    }
+
+    // Raw render without the cache, for callers that already hold the content
+    public RenderedImage rasterise(SignatureContent content, Format format) {
+        String version = content.versionKey() + "-t" + TEMPLATE_VERSION;
+        String etag = "\"" + version + "-" + format.imageIoName + "\"";
+        try {
+            byte[] bytes = CompletableFuture
+                    .supplyAsync(() -> canvases.get().draw(content, format), imageExecutor)
+                    .get(renderTimeoutMs, TimeUnit.MILLISECONDS);
+            return new RenderedImage(bytes, format.contentType(), version, etag, content.companyId());
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Signature renderer is busy, try again shortly", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Signature render timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rendering signature", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Signature render failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void onInvalidation(InvalidationBus.Event event) {
+        switch (event.type()) {
+            case USER -> {
+                Long userId = Long.valueOf(event.key());
+                for (Format format : Format.values()) {
+                    images.invalidate(cacheKey(userId, format));
+                }
+            }
+            case COMPANY -> {
+                Long companyId = Long.valueOf(event.key());
+                images.invalidateIf(image -> companyId.equals(image.companyId()));
+            }
+            case ALL -> images.clear();
+            default -> {
+            }
+        }
+    }
+
+    private static String cacheKey(Long userId, Format format) {
+        return userId + ":" + format.imageIoName;
+    }
+
+    // Per-thread drawing surface, sized for the tallest signature and cropped per render
+    private static final class Canvas {
+        private final BufferedImage image = new BufferedImage(WIDTH, MAX_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        private final Graphics2D graphics = image.createGraphics();
+        private final FontMetrics nameMetrics;
+        private final FontMetrics lineMetrics;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 * 1024);
+        private final List<String> lines = new ArrayList<>(6);
+        private ImageWriter writer;
+        private Format writerFormat;
+
+        Canvas() {
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            nameMetrics = graphics.getFontMetrics(NAME_FONT);
+            lineMetrics = graphics.getFontMetrics(LINE_FONT);
+        }
+
+        byte[] draw(SignatureContent content, Format format) {
+            lines.clear();
+            addLine(content.title(), null);
+            addLine(content.email(), "Email");
+            addLine(content.phone(), "Phone");
+            addLine(content.companyName(), null);
+            addLine(content.site(), "Website");
+
+            int lineHeight = lineMetrics.getHeight();
+            int height = Math.min(MAX_HEIGHT, PADDING * 2 + nameMetrics.getHeight() + lines.size() * lineHeight);
+            int width = PADDING * 2 + nameMetrics.stringWidth(nonNull(content.name()));
+            for (String line : lines) {
+                width = Math.max(width, PADDING * 2 + lineMetrics.stringWidth(line));
+            }
+            width = Math.min(WIDTH, width);
+
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+
+            int y = PADDING + nameMetrics.getAscent();
+            graphics.setFont(NAME_FONT);
+            graphics.setColor(NAME_COLOR);
+            graphics.drawString(nonNull(content.name()), PADDING, y);
+            y += nameMetrics.getDescent();
+
+            graphics.setFont(LINE_FONT);
+            graphics.setColor(LINE_COLOR);
+            for (String line : lines) {
+                y += lineHeight;
+                if (y > height) {
+                    break;
+                }
+                graphics.drawString(line, PADDING, y - lineMetrics.getDescent());
+            }
+
+            return encode(image.getSubimage(0, 0, width, height), format);
+        }
+
+        private void addLine(String value, String label) {
+            if (value != null && !value.isBlank()) {
+                lines.add(label == null ? value : label + ": " + value);
+            }
+        }
+
+        // In-memory stream and a reused writer: no ImageIO temp files, no encoder lookup per image
+        private byte[] encode(BufferedImage cropped, Format format) {
+            buffer.reset();
+            try (MemoryCacheImageOutputStream out = new MemoryCacheImageOutputStream(buffer)) {
+                ImageWriter encoder = writer(format);
+                encoder.setOutput(out);
+                encoder.write(null, new IIOImage(cropped, null, null), encoder.getDefaultWriteParam());
+                encoder.reset();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer.toByteArray();
+        }
+
+        private ImageWriter writer(Format format) {
+            if (writer == null || writerFormat != format) {
+                if (writer != null) {
+                    writer.dispose();
+                }
+                Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format.imageIoName);
+                if (!writers.hasNext()) {
+                    throw new IllegalArgumentException("No " + format.imageIoName.toUpperCase(Locale.ROOT) + " encoder is installed");
+                }
+                writer = writers.next();
+                writerFormat = format;
+            }
+            return writer;
+        }
+
+        private static String nonNull(String value) {
+            return value == null ? "" : value;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+import signature_generator.example.signature_generator.auth.model.Company;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.model.UserProfile;
+import signature_generator.example.signature_generator.auth.service.InvalidationBus;
+import signature_generator.example.signature_generator.auth.service.UserService;
+import signature_generator.example.signature_generator.auth.util.ExpiringCache;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class SignatureRenderService implements InvalidationBus.Listener {
+
+    // templates/signature/<name>.html replaces the built-in layout below when present
+    public static final String TEMPLATE_NAME = "signature";
+
+    private static final int RENDERED_ENTRIES = 10_000;
+    private static final long RENDERED_TTL_MS = 3_600_000;
+
+    private final UserService userService;
+    private final TemplateRegistry templateRegistry;
+
+    // Absolute origin for asset links, signatures are pasted into mail clients where relative URLs don't resolve
+    @Value("${app.public-base-url:}")
+    private String publicBaseUrl;
+
+    // Company block rendered once and shared by every member, one entry per company
+    private final ConcurrentHashMap<Long, CompanyFragment> companyFragments = new ConcurrentHashMap<>();
+
+    private record CompanyFragment(Long version, String html) {
+    }
+
+    // Template output per user, valid while its template version is current and no write has evicted it
+    private final ExpiringCache<Long, RenderedHtml> renderedHtml = new ExpiringCache<>(RENDERED_ENTRIES);
+
+    private record RenderedHtml(long templateVersion, Long companyId, String html) {
+    }
+
+    // Plain copy of everything a signature shows, safe to hand to other threads once the transaction is over
+    public record SignatureContent(Long userId, String name, String title, String email, String phone,
+                                   Long companyId, String companyName, String site, String versionKey,
+                                   String missionStatement, String address, String logoHash) {
+    }
+
+    // Render the HTML signature for a user: from the current template when one is loaded, else the built-in layout
+    @Transactional(readOnly = true)
+    public String renderHtml(Long userId) {
+        SignatureTemplate template = templateRegistry.find(TEMPLATE_NAME);
+        if (template != null) {
+            return renderTemplate(userId, template);
+        }
+
+        User user = userService.findById(userId);
+
+        if (user == null) {
+            throw new IllegalArgumentException("User not found");
+        }
+
+        UserProfile profile = userService.findProfile(userId);
+        String userTitle = profile != null ? profile.getUserTitle() : null;
+        Company company = profile != null ? profile.getCompany() : null;
+
+        StringBuilder html = new StringBuilder(512);
+        html.append("<div class=\"signature\">");
+        appendLine(html, "Name", user.getDisplayName());
+        appendLine(html, "Title", userTitle);
+        appendLine(html, "Email", user.getEmail());
+        appendLine(html, "Phone", user.getPhone());
+        if (company != null) {
+            html.append(companyFragment(company));
+        }
+        html.append("</div>");
+        return html.toString();
+    }
+
+    private String renderTemplate(Long userId, SignatureTemplate template) {
+        RenderedHtml cached = renderedHtml.get(userId);
+        if (cached != null && cached.templateVersion() == template.version()) {
+            return cached.html();
+        }
+
+        // A write that commits while we load must not be overwritten by what we read before it
+        long generation = renderedHtml.generation();
+        SignatureContent content = loadContent(userId);
+        String html = template.render(content, publicBaseUrl);
+        renderedHtml.put(userId, new RenderedHtml(template.version(), content.companyId(), html),
+                System.currentTimeMillis() + RENDERED_TTL_MS, generation);
+        return html;
+    }
+
+    // Snapshot of the signature fields; versionKey changes whenever any row behind them does
+    @Transactional(readOnly = true)
+    public SignatureContent loadContent(Long userId) {
+        User user = userService.findById(userId);
+
+        if (user == null) {
+            throw new IllegalArgumentException("User not found");
+        }
+
+        UserProfile profile = userService.findProfile(userId);
+        Company company = profile != null ? profile.getCompany() : null;
+        String versionKey = "u" + user.getVersion()
+                + "-p" + (profile != null ? profile.getVersion() : "none")
+                + "-c" + (company != null ? company.getId() + "." + company.getVersion() : "none");
+
+        return new SignatureContent(userId, user.getDisplayName(), profile != null ? profile.getUserTitle() : null,
+                user.getEmail(), user.getPhone(),
+                company != null ? company.getId() : null,
+                company != null ? company.getName() : null,
+                company != null ? company.getSite() : null,
+                versionKey,
+                company != null ? company.getMissionStatement() : null,
+                company != null ? company.getAddress() : null,
+                company != null ? company.getLogoHash() : null);
+    }
+
+    // Drop the cached block after a branding change (the version check also catches stale entries)
+    public void evictCompany(Long companyId) {
+        companyFragments.remove(companyId);
+        renderedHtml.invalidateIf(rendered -> companyId.equals(rendered.companyId()));
+    }
+
+    // Branding changes arrive here from this node and every other one
+    @Override
+    public void onInvalidation(InvalidationBus.Event event) {
+        switch (event.type()) {
+            case USER -> renderedHtml.invalidate(Long.valueOf(event.key()));
+            case COMPANY -> evictCompany(Long.valueOf(event.key()));
+            case ALL -> {
+                companyFragments.clear();
+                renderedHtml.clear();
+            }
+            default -> {
+            }
+        }
+    }
+
+    private String companyFragment(Company company) {
+        CompanyFragment cached = companyFragments.get(company.getId());
+        if (cached != null && Objects.equals(cached.version(), company.getVersion())) {
+            return cached.html();
+        }
+
+        StringBuilder html = new StringBuilder(256);
+        html.append(logoHtml(publicBaseUrl, company.getLogoHash(), company.getName()));
+        appendLine(html, "Company", company.getName());
+        appendLine(html, "Mission", company.getMissionStatement());
+        appendLine(html, "Address", company.getAddress());
+        html.append(siteHtml(company.getSite()));
+
+        String rendered = html.toString();
+        companyFragments.put(company.getId(), new CompanyFragment(company.getVersion(), rendered));
+        return rendered;
+    }
+
+    // The pieces below are the built-in layout's lines; the live preview renders them one at a time
+    public static String lineHtml(String label, String value) {
+        StringBuilder html = new StringBuilder(64);
+        appendLine(html, label, value);
+        return html.toString();
+    }
+
+    public static String logoHtml(String publicBaseUrl, String logoHash, String companyName) {
+        if (logoHash == null) {
+            return "";
+        }
+        return "<img src=\"" + (publicBaseUrl == null ? "" : publicBaseUrl) + "/assets/logos/"
+                + LogoService.variantName(logoHash, LogoService.SIGNATURE_SIZE)
+                + "\" alt=\"" + HtmlUtils.htmlEscape(companyName == null ? "" : companyName) + "\" height=\"64\"><br>";
+    }
+
+    public static String siteHtml(String site) {
+        if (site == null || site.isBlank()) {
+            return "";
+        }
+        String escaped = HtmlUtils.htmlEscape(site);
+        String href = escaped.startsWith("http") ? escaped : "https://" + escaped;
+        return "<strong>Website:</strong> <a href=\"" + href + "\" target=\"_blank\">" + escaped + "</a><br>";
+    }
+
+    private static void appendLine(StringBuilder html, String label, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        html.append("<strong>").append(label).append(":</strong> ")
+                .append(HtmlUtils.htmlEscape(value)).append("<br>");
+    }
+}
@@ -0,0 +1,162 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import org.springframework.web.util.HtmlUtils;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService.SignatureContent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+
+// A signature layout parsed once into literal and field segments, so rendering is a single walk with no parsing.
+// Syntax: {{field}} inserts the HTML-escaped value, {{#field}}...{{/field}} keeps its body only when the field is set.
+public final class SignatureTemplate {
+
+    // Values a template can reference; the base URL is passed in so logo links stay absolute
+    public enum Field {
+        NAME((content, baseUrl) -> content.name()),
+        TITLE((content, baseUrl) -> content.title()),
+        EMAIL((content, baseUrl) -> content.email()),
+        PHONE((content, baseUrl) -> content.phone()),
+        COMPANY((content, baseUrl) -> content.companyName()),
+        MISSION((content, baseUrl) -> content.missionStatement()),
+        ADDRESS((content, baseUrl) -> content.address()),
+        SITE((content, baseUrl) -> content.site()),
+        SITE_URL((content, baseUrl) -> isBlank(content.site()) ? null
+                : content.site().startsWith("http") ? content.site() : "https://" + content.site()),
+        LOGO_URL((content, baseUrl) -> content.logoHash() == null ? null
+                : baseUrl + "/assets/logos/" + LogoService.variantName(content.logoHash(), LogoService.SIGNATURE_SIZE));
+
+        private final BiFunction<SignatureContent, String, String> extractor;
+
+        Field(BiFunction<SignatureContent, String, String> extractor) {
+            this.extractor = extractor;
+        }
+
+        String value(SignatureContent content, String baseUrl) {
+            return extractor.apply(content, baseUrl);
+        }
+
+        static Field of(String name, int position) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown field \"" + name.trim() + "\" at offset " + position);
+            }
+        }
+    }
+
+    private sealed interface Segment permits Literal, Value, Section {
+    }
+
+    private record Literal(String text) implements Segment {
+    }
+
+    private record Value(Field field) implements Segment {
+    }
+
+    private record Section(Field field, List<Segment> body) implements Segment {
+    }
+
+    private final String name;
+    private final long version;
+    private final List<Segment> segments;
+    private final int sizeHint;
+
+    private SignatureTemplate(String name, long version, List<Segment> segments, int sizeHint) {
+        this.name = name;
+        this.version = version;
+        this.segments = segments;
+        this.sizeHint = sizeHint;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // Registry-wide counter value at the time this template was compiled; part of every render cache key
+    public long version() {
+        return version;
+    }
+
+    // IllegalArgumentException with the offset of the first problem, so a broken edit never replaces a working template
+    public static SignatureTemplate compile(String name, long version, String source) {
+        Deque<Section> open = new ArrayDeque<>();
+        Deque<Integer> openedAt = new ArrayDeque<>();
+        List<Segment> root = new ArrayList<>();
+        List<Segment> target = root;
+
+        int position = 0;
+        while (position < source.length()) {
+            int start = source.indexOf("{{", position);
+            if (start < 0) {
+                target.add(new Literal(source.substring(position)));
+                break;
+            }
+            if (start > position) {
+                target.add(new Literal(source.substring(position, start)));
+            }
+            int end = source.indexOf("}}", start + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed tag at offset " + start);
+            }
+
+            String tag = source.substring(start + 2, end);
+            if (tag.startsWith("#")) {
+                Section section = new Section(Field.of(tag.substring(1), start), new ArrayList<>());
+                target.add(section);
+                open.push(section);
+                openedAt.push(start);
+                target = section.body();
+            } else if (tag.startsWith("/")) {
+                Field field = Field.of(tag.substring(1), start);
+                if (open.isEmpty() || open.peek().field() != field) {
+                    throw new IllegalArgumentException("Unexpected {{/" + tag.substring(1).trim() + "}} at offset " + start);
+                }
+                open.pop();
+                openedAt.pop();
+                target = open.isEmpty() ? root : open.peek().body();
+            } else {
+                target.add(new Value(Field.of(tag, start)));
+            }
+            position = end + 2;
+        }
+        if (!open.isEmpty()) {
+            throw new IllegalArgumentException("Section {{#" + open.peek().field().name().toLowerCase(Locale.ROOT)
+                    + "}} opened at offset " + openedAt.peek() + " is never closed");
+        }
+
+        return new SignatureTemplate(name, version, root, source.length() + 256);
+    }
+
+    public String render(SignatureContent content, String baseUrl) {
+        StringBuilder html = new StringBuilder(sizeHint);
+        render(segments, content, baseUrl == null ? "" : baseUrl, html);
+        return html.toString();
+    }
+
+    private static void render(List<Segment> segments, SignatureContent content, String baseUrl, StringBuilder html) {
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Literal literal -> html.append(literal.text());
+                case Value value -> {
+                    String text = value.field().value(content, baseUrl);
+                    if (!isBlank(text)) {
+                        html.append(HtmlUtils.htmlEscape(text));
+                    }
+                }
+                case Section section -> {
+                    if (!isBlank(section.field().value(content, baseUrl))) {
+                        render(section.body(), content, baseUrl, html);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,197 @@
+package signature_generator.example.signature_generator.signature.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Signature layouts loaded from app.templates.dir ("<name>.html") and recompiled in the background when they change.
+// A new version replaces the old one only after it compiles, so readers always get a working template without waiting;
+// each version gets a fresh number from one counter, and render caches key on it so a swap needs no explicit flush.
+@Service
+public class TemplateRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateRegistry.class);
+
+    private static final String SUFFIX = ".html";
+
+    @Value("${app.templates.dir:templates/signature}")
+    private String templatesDir = "templates/signature";
+
+    @Value("${app.templates.watch:true}")
+    private boolean watch = true;
+
+    // Editors save in several writes; events within this window are compiled once
+    @Value("${app.templates.debounce-ms:200}")
+    private long debounceMs = 200;
+
+    private final ConcurrentHashMap<String, Loaded> templates = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    private record Loaded(SignatureTemplate template, String source) {
+    }
+
+    private ScheduledExecutorService compiler;
+    private WatchService watchService;
+    private Thread watcher;
+
+    @PostConstruct
+    void start() {
+        Path dir = Path.of(templatesDir);
+        if (!Files.isDirectory(dir)) {
+            log.info("No template directory at {}, using the built-in signature layout", dir.toAbsolutePath());
+            return;
+        }
+        // The first load is synchronous, so the application never serves the fallback layout at startup by accident
+        loadAll(dir);
+
+        if (!watch) {
+            return;
+        }
+        compiler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "template-compiler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            log.warn("Template hot reload disabled, could not watch {}: {}", dir, e.getMessage());
+            return;
+        }
+        watcher = new Thread(() -> watchLoop(dir), "template-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Closing template watcher failed: {}", e.getMessage());
+            }
+        }
+        if (compiler != null) {
+            compiler.shutdownNow();
+        }
+    }
+
+    // Current compiled version, or null when no file of that name exists (callers fall back to built-in rendering)
+    public SignatureTemplate find(String name) {
+        Loaded loaded = templates.get(name);
+        return loaded != null ? loaded.template() : null;
+    }
+
+    private void watchLoop(Path dir) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        compiler.execute(() -> loadAll(dir));
+                        continue;
+                    }
+                    String fileName = event.context().toString();
+                    if (fileName.endsWith(SUFFIX)) {
+                        schedule(dir.resolve(fileName));
+                    }
+                }
+                if (!key.reset()) {
+                    log.warn("Template directory {} is no longer accessible, hot reload stopped", dir);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private void schedule(Path file) {
+        String name = templateName(file);
+        pending.compute(name, (key, previous) -> {
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            return compiler.schedule(() -> {
+                pending.remove(key);
+                load(file);
+            }, debounceMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private void loadAll(Path dir) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                load(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not list templates in {}: {}", dir, e.getMessage());
+        }
+        // Anything removed while events were being dropped
+        templates.keySet().removeIf(name -> !Files.exists(dir.resolve(name + SUFFIX)));
+    }
+
+    private void load(Path file) {
+        String name = templateName(file);
+        if (!Files.exists(file)) {
+            if (templates.remove(name) != null) {
+                log.info("Template {} removed, using the built-in layout", name);
+            }
+            return;
+        }
+
+        String source;
+        try {
+            source = Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Could not read template {}, keeping the current version: {}", file, e.getMessage());
+            return;
+        }
+        Loaded current = templates.get(name);
+        if (current != null && current.source().equals(source)) {
+            // Touched but unchanged: keep the version so nothing cached is invalidated
+            return;
+        }
+
+        SignatureTemplate compiled;
+        try {
+            compiled = SignatureTemplate.compile(name, versions.incrementAndGet(), source);
+        } catch (IllegalArgumentException e) {
+            log.warn("Template {} does not compile, keeping {}: {}", name,
+                    current != null ? "version " + current.template().version() : "the built-in layout", e.getMessage());
+            return;
+        }
+        templates.put(name, new Loaded(compiled, source));
+        log.info("Template {} is now at version {}", name, compiled.version());
+    }
+
+    private static String templateName(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.substring(0, fileName.length() - SUFFIX.length());
+    }
+}
@@ -0,0 +1,68 @@
+package signature_generator.example.signature_generator.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import signature_generator.example.signature_generator.auth.config.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two embedded H2 instances stand in for the primary and the replica
+public class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica));
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routing));
+    }
+
+    @Test
+    void readOnlyTransactions_shouldUseReplica() {
+        transactionTemplate.setReadOnly(true);
+
+        String node = transactionTemplate.execute(status -> currentNode());
+
+        assertEquals("replica", node);
+    }
+
+    @Test
+    void readWriteTransactions_shouldUsePrimary() {
+        transactionTemplate.setReadOnly(false);
+
+        String node = transactionTemplate.execute(status -> currentNode());
+
+        assertEquals("primary", node);
+    }
+
+    @Test
+    void statementsOutsideTransactions_shouldUsePrimary() {
+        assertEquals("primary", currentNode());
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate setup = new JdbcTemplate(dataSource);
+        setup.execute("create table if not exists node (name varchar(20))");
+        setup.execute("delete from node");
+        setup.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+}
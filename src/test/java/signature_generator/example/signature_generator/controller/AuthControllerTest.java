@@ -12,7 +12,9 @@ import signature_generator.example.signature_generator.auth.controller.AuthContr
 import signature_generator.example.signature_generator.auth.model.User;
 import signature_generator.example.signature_generator.auth.service.EmailService;
 import signature_generator.example.signature_generator.auth.service.JwtService;
+import signature_generator.example.signature_generator.auth.service.SessionService;
 import signature_generator.example.signature_generator.auth.service.UserService;
+import signature_generator.example.signature_generator.auth.service.VerificationLinkService;
 
 import java.util.Map;
 
@@ -33,6 +35,12 @@ public class AuthControllerTest {
     @Mock
     private JwtService jwtService;
 
+    @Mock
+    private VerificationLinkService verificationLinkService;
+
+    @Mock
+    private SessionService sessionService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -48,9 +56,10 @@ public class AuthControllerTest {
         User registeredUser = new User();
         registeredUser.setUsername("testuser@example.com");
         registeredUser.setEmail("testuser@example.com");
-        registeredUser.setVerificationToken("abc123");
+        registeredUser.setId(7L);
 
         when(userService.registerUser(anyString(), anyString(), anyString(), anyString())).thenReturn(registeredUser);
+        when(verificationLinkService.createLink(7L)).thenReturn("http://signaturegenerator.samueldev.com/api/auth/verify?token=7.1700000000.abc.sig");
         doNothing().when(emailService).sendEmail(anyString(), anyString(), anyString());
 
         // Act
@@ -66,7 +75,7 @@ public class AuthControllerTest {
         assertEquals("testuser@example.com", responseBody.get("email"));
 
         verify(userService).registerUser("testuser@example.com", "password123", "testuser@example.com", "1234567890");
-        verify(emailService).sendEmail(eq("testuser@example.com"), eq("Verify Your Email"), contains("http://signaturegenerator.samueldev.com/api/auth/verify?token=abc123"));
+        verify(emailService).sendEmail(eq("testuser@example.com"), eq("Verify Your Email"), contains("http://signaturegenerator.samueldev.com/api/auth/verify?token=7.1700000000.abc.sig"));
     }
 
     @Test
@@ -148,6 +157,46 @@ public class AuthControllerTest {
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    public void testVerifyEmailWithSignedToken() {
+        // Arrange
+        String token = "7.1700000000.abc.sig";
+        when(verificationLinkService.isSignedToken(token)).thenReturn(true);
+        when(verificationLinkService.parse(token))
+                .thenReturn(new VerificationLinkService.SignedVerification(7L, Long.MAX_VALUE));
+        when(userService.markVerified(7L)).thenReturn(true);
+
+        // Act
+        ResponseEntity<?> response = authController.verifyEmail(token);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Email verified successfully!", response.getBody());
+        verify(userService).markVerified(7L);
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    public void testVerifyEmailWithTamperedOrExpiredSignedToken() {
+        // Arrange
+        String tampered = "8.1700000000.abc.sig";
+        String expired = "7.1.abc.sig";
+        when(verificationLinkService.isSignedToken(anyString())).thenReturn(true);
+        when(verificationLinkService.parse(tampered)).thenReturn(null);
+        when(verificationLinkService.parse(expired)).thenReturn(new VerificationLinkService.SignedVerification(7L, 1L));
+
+        // Act
+        ResponseEntity<?> responseTampered = authController.verifyEmail(tampered);
+        ResponseEntity<?> responseExpired = authController.verifyEmail(expired);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, responseTampered.getStatusCode());
+        assertEquals("Invalid verification token", responseTampered.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, responseExpired.getStatusCode());
+        assertEquals("Verification token has expired. Please request a new one.", responseExpired.getBody());
+        verifyNoInteractions(userService);
+    }
+
     @Test
     public void testLoginSuccess() {
         // Arrange
@@ -183,6 +232,32 @@ public class AuthControllerTest {
         verify(jwtService).buildToken("test@example.com", 1L);
     }
 
+    @Test
+    public void testLoginWhenSessionStoreIsFull() {
+        // Arrange
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setPassword("password123");
+
+        User loggedInUser = new User();
+        loggedInUser.setId(1L);
+        loggedInUser.setEmail("test@example.com");
+        loggedInUser.setVerified(true);
+
+        when(userService.authenticate("test@example.com", "password123")).thenReturn(true);
+        when(userService.findByEmail("test@example.com")).thenReturn(loggedInUser);
+        when(sessionService.isEnabled()).thenReturn(true);
+        when(sessionService.issue(1L)).thenThrow(new IllegalStateException("Session store is full"));
+
+        // Act
+        ResponseEntity<?> response = authController.login(user);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("5", response.getHeaders().getFirst("Retry-After"));
+        verifyNoInteractions(jwtService);
+    }
+
     @Test
     public void testLoginWithInvalidCredentials() {
         // Arrange
@@ -265,6 +340,7 @@ public class AuthControllerTest {
     public void testLogoutSuccess() {
         // Arrange
         HttpServletRequest mockRequest = mock(HttpServletRequest.class);
+        when(mockRequest.getHeader("Authorization")).thenReturn("Bearer jwt-token");
 
         // Act
         ResponseEntity<Map<String, Object>> response = authController.logout(mockRequest);
@@ -274,10 +350,44 @@ public class AuthControllerTest {
         assertTrue(response.getBody() instanceof Map);
         Map<String, Object> responseBody = response.getBody();
         assertTrue((Boolean) responseBody.get("success"));
-        assertEquals("Logged out successfully. Please delete the JWT token on your end.", responseBody.get("message"));
+        assertEquals("Logged out successfully.", responseBody.get("message"));
+
+        // The JWT is revoked server-side instead of relying on the client to forget it
+        verify(jwtService).revoke("jwt-token");
+        verify(sessionService, never()).invalidate(anyString());
+    }
+
+    @Test
+    public void testLogoutInvalidatesOpaqueSession() {
+        // Arrange
+        HttpServletRequest mockRequest = mock(HttpServletRequest.class);
+        when(mockRequest.getHeader("Authorization")).thenReturn("Bearer ses_token");
+        when(sessionService.isSessionToken("ses_token")).thenReturn(true);
+        when(sessionService.invalidate("ses_token")).thenReturn(true);
 
-        // Verify that no interactions were made with the mocked request
-        verifyNoInteractions(mockRequest);
+        // Act
+        ResponseEntity<Map<String, Object>> response = authController.logout(mockRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(sessionService).invalidate("ses_token");
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    public void testLogoutReportsSessionThatWasNotReleased() {
+        // Arrange
+        HttpServletRequest mockRequest = mock(HttpServletRequest.class);
+        when(mockRequest.getHeader("Authorization")).thenReturn("Bearer ses_gone");
+        when(sessionService.isSessionToken("ses_gone")).thenReturn(true);
+        when(sessionService.invalidate("ses_gone")).thenReturn(false);
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = authController.logout(mockRequest);
+
+        // Assert
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertFalse((Boolean) response.getBody().get("success"));
     }
 
     @Test
@@ -292,9 +402,10 @@ public class AuthControllerTest {
         User registeredUser = new User();
         registeredUser.setUsername("testuser@example.com");
         registeredUser.setEmail("testuser@example.com");
-        registeredUser.setVerificationToken("abc123");
+        registeredUser.setId(7L);
 
         when(userService.registerUser(anyString(), anyString(), anyString(), anyString())).thenReturn(registeredUser);
+        when(verificationLinkService.createLink(7L)).thenReturn("http://signaturegenerator.samueldev.com/api/auth/verify?token=7.1700000000.abc.sig");
         doThrow(new RuntimeException("Email sending failed")).when(emailService).sendEmail(anyString(), anyString(), anyString());
 
         // Act and Assert
@@ -306,6 +417,6 @@ public class AuthControllerTest {
         assertEquals(RuntimeException.class, exception.getClass());
 
         verify(userService).registerUser("testuser@example.com", "password123", "testuser@example.com", "1234567890");
-        verify(emailService).sendEmail(eq("testuser@example.com"), eq("Verify Your Email"), contains("http://signaturegenerator.samueldev.com/api/auth/verify?token=abc123"));
+        verify(emailService).sendEmail(eq("testuser@example.com"), eq("Verify Your Email"), contains("http://signaturegenerator.samueldev.com/api/auth/verify?token=7.1700000000.abc.sig"));
     }
 }
@@ -6,10 +6,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import signature_generator.example.signature_generator.auth.controller.UserController;
 import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.model.UserProfile;
 import signature_generator.example.signature_generator.auth.service.UserService;
 
 import java.util.Arrays;
@@ -109,12 +111,12 @@ class UserControllerTest {
         companyInfo.put("companySite", "www.acme.com");
         companyInfo.put("userTitle", "CEO");
 
-        User updatedUser = new User(); // Assuming you have a User class
+        UserProfile updatedProfile = new UserProfile();
         when(userService.updateUserCompanyInfo(userId, "Acme Corp", "To be the best",
-                "123 Main St", "www.acme.com", "CEO")).thenReturn(updatedUser);
+                "123 Main St", "www.acme.com", "CEO")).thenReturn(updatedProfile);
 
         // Act
-        ResponseEntity<?> response = userController.updateCompanyInfo(userId, companyInfo);
+        ResponseEntity<?> response = userController.updateCompanyInfo(admin(), userId, companyInfo);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -141,7 +143,7 @@ class UserControllerTest {
                 .thenThrow(new IllegalArgumentException("User not found"));
 
         // Act
-        ResponseEntity<?> response = userController.updateCompanyInfo(nonExistentUserId, companyInfo);
+        ResponseEntity<?> response = userController.updateCompanyInfo(admin(), nonExistentUserId, companyInfo);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -152,6 +154,102 @@ class UserControllerTest {
                 "123 Main St", "www.acme.com", "CEO");
     }
 
+    @Test
+    void shouldRejectBrandingChangesFromNonAdminsInUpdateCompanyInfo() {
+        // Arrange
+        User staff = new User();
+        staff.setId(1L);
+        staff.setRole("Staff");
+        Map<String, String> companyInfo = new HashMap<>();
+        companyInfo.put("companyName", "Acme Corp");
+        companyInfo.put("missionStatement", "Something else entirely");
+
+        // Act
+        ResponseEntity<?> response = userController.updateCompanyInfo(staff, 1L, companyInfo);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void shouldLetNonAdminsLinkACompanyByName() {
+        // Arrange
+        User staff = new User();
+        staff.setId(1L);
+        staff.setRole("Staff");
+        Map<String, String> companyInfo = new HashMap<>();
+        companyInfo.put("companyName", "Acme Corp");
+        companyInfo.put("userTitle", "Engineer");
+        when(userService.updateUserCompanyInfo(1L, "Acme Corp", null, null, null, "Engineer"))
+                .thenReturn(new UserProfile());
+
+        // Act
+        ResponseEntity<?> response = userController.updateCompanyInfo(staff, 1L, companyInfo);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void shouldPatchOnlyProvidedUserFieldsWithExpectedVersion() {
+        // Arrange
+        Map<String, String> changes = Map.of("phone", "1234567890");
+
+        // Act
+        ResponseEntity<?> response = userController.patchUser(admin(), 1L, "\"4\"", changes);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(userService).patchUser(1L, changes, 4L);
+    }
+
+    @Test
+    void shouldReturnConflictWhenPatchedUserVersionIsStale() {
+        // Arrange
+        Map<String, String> changes = Map.of("phone", "1234567890");
+        doThrow(new OptimisticLockingFailureException("User 1 was modified by someone else, reload and retry"))
+                .when(userService).patchUser(1L, changes, 2L);
+
+        // Act
+        ResponseEntity<?> response = userController.patchUser(admin(), 1L, "2", changes);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void shouldRejectPatchingAnotherUser() {
+        // Arrange
+        User staff = new User();
+        staff.setId(2L);
+        staff.setRole("Staff");
+
+        // Act
+        ResponseEntity<?> response = userController.patchUser(staff, 1L, null, Map.of("phone", "1234567890"));
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void shouldRejectCompanyInfoUpdatesForAnotherUser() {
+        // Arrange
+        User staff = new User();
+        staff.setId(2L);
+        staff.setRole("Staff");
+        Map<String, String> companyInfo = new HashMap<>();
+        companyInfo.put("userTitle", "Engineer");
+
+        // Act
+        ResponseEntity<?> response = userController.updateCompanyInfo(staff, 1L, companyInfo);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(userService);
+    }
+
     @Test
     void shouldReturnListOfAllUsersWhenAuthenticatedUserHasAdminRole() {
         // Arrange
@@ -242,4 +340,43 @@ class UserControllerTest {
         // Verify that the userService method was called
         verify(userService).countAllUsers();
     }
+
+    @Test
+    void shouldReturnOwnProfile() {
+        // Arrange
+        User staff = new User();
+        staff.setId(2L);
+        staff.setRole("Staff");
+        UserProfile profile = new UserProfile();
+        when(userService.findProfile(2L)).thenReturn(profile);
+
+        // Act
+        ResponseEntity<?> response = userController.getProfile(staff, 2L);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(profile, response.getBody());
+    }
+
+    @Test
+    void shouldRejectReadingAnotherUsersProfile() {
+        // Arrange
+        User staff = new User();
+        staff.setId(2L);
+        staff.setRole("Staff");
+
+        // Act
+        ResponseEntity<?> response = userController.getProfile(staff, 3L);
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(userService);
+    }
+
+    private static User admin() {
+        User admin = new User();
+        admin.setId(1L);
+        admin.setRole("Admin");
+        return admin;
+    }
 }
@@ -0,0 +1,139 @@
+package signature_generator.example.signature_generator.filter;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import signature_generator.example.signature_generator.auth.filter.JwtAuthenticationFilter;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.service.JwtService;
+import signature_generator.example.signature_generator.auth.service.SessionService;
+import signature_generator.example.signature_generator.auth.service.UserService;
+import signature_generator.example.signature_generator.auth.service.WarmupService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private WarmupService warmupService;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @InjectMocks
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldRejectInvalidTokenWith401WithoutContinuingTheChain() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = request("/api/v1/users", "Bearer not-a-jwt");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(jwtService.tryVerify("not-a-jwt")).thenReturn(null);
+
+        // Act
+        jwtAuthenticationFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        verifyNoInteractions(filterChain, userService);
+    }
+
+    @Test
+    void shouldAuthenticateValidToken() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = request("/api/v1/users", "Bearer valid");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        User user = new User("jdoe", "hash", "jdoe@example.com", null, "Staff");
+        when(jwtService.tryVerify("valid")).thenReturn(
+                new JwtService.VerifiedToken("jdoe@example.com", 1L, 0L, Long.MAX_VALUE));
+        when(userService.findByEmail("jdoe@example.com")).thenReturn(user);
+
+        // Act
+        jwtAuthenticationFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertSame(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void shouldAuthenticateOpaqueSessionTokenWithoutTouchingJwtService() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = request("/api/v1/users", "Bearer ses_live");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        User user = new User("jdoe", "hash", "jdoe@example.com", null, "Staff");
+        when(sessionService.isSessionToken("ses_live")).thenReturn(true);
+        when(sessionService.resolve("ses_live")).thenReturn(1L);
+        when(userService.findById(1L)).thenReturn(user);
+
+        // Act
+        jwtAuthenticationFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertSame(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void shouldRejectLoggedOutSessionTokenWith401() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = request("/api/v1/users", "Bearer ses_gone");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(sessionService.isSessionToken("ses_gone")).thenReturn(true);
+        when(sessionService.resolve("ses_gone")).thenReturn(null);
+
+        // Act
+        jwtAuthenticationFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        verifyNoInteractions(filterChain, userService, jwtService);
+    }
+
+    @Test
+    void shouldIgnoreBearerTokenOnPublicAuthEndpoints() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = request("/api/auth/login", "Bearer stale");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        jwtAuthenticationFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        verify(jwtService, never()).tryVerify(any());
+    }
+
+    private static MockHttpServletRequest request(String path, String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+}
@@ -0,0 +1,64 @@
+package signature_generator.example.signature_generator.monitoring;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import signature_generator.example.signature_generator.auth.monitoring.AuthVerifyEvent;
+import signature_generator.example.signature_generator.auth.monitoring.JfrStageReport;
+import signature_generator.example.signature_generator.auth.monitoring.PasswordHashEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JfrStageReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void summarize_shouldReportPercentilesPerStage() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("pipeline.jfr");
+        try (Recording recording = new Recording()) {
+            // Thresholds off, so every event is recorded regardless of how fast it was
+            recording.enable(AuthVerifyEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(PasswordHashEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            for (int i = 0; i < 20; i++) {
+                AuthVerifyEvent event = new AuthVerifyEvent();
+                event.begin();
+                event.tokenType = "jwt";
+                event.accepted = true;
+                event.commit();
+            }
+            PasswordHashEvent hash = new PasswordHashEvent();
+            hash.begin();
+            Thread.sleep(5);
+            hash.operation = "matches";
+            hash.commit();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Act
+        List<JfrStageReport.StageSummary> summaries = JfrStageReport.summarize(file);
+
+        // Assert
+        assertEquals(2, summaries.size());
+        assertEquals("AuthVerify", summaries.get(0).stage());
+        assertEquals(20, summaries.get(0).count());
+        assertTrue(summaries.get(0).p50Ms() <= summaries.get(0).p99Ms());
+        assertEquals("PasswordHash", summaries.get(1).stage());
+        assertEquals(1, summaries.get(1).count());
+        assertTrue(summaries.get(1).maxMs() >= 5);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JfrStageReport.print(summaries, new PrintStream(out, true));
+        assertTrue(out.toString().contains("AuthVerify"));
+    }
+}
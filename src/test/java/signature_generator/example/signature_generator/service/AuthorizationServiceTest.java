@@ -0,0 +1,70 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import signature_generator.example.signature_generator.auth.model.Permission;
+import signature_generator.example.signature_generator.auth.model.Role;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.service.AuthorizationService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthorizationServiceTest {
+
+    private final AuthorizationService authz = new AuthorizationService();
+
+    @Test
+    void getAuthorities_shouldReturnInternedRoleAuthority() {
+        // Arrange
+        User admin = new User("admin", "password", "admin@example.com", null, "Admin");
+        User lowercaseAdmin = new User("root", "password", "root@example.com", null, "admin");
+
+        // Assert
+        assertSame(admin.getAuthorities(), lowercaseAdmin.getAuthorities());
+        assertEquals("ROLE_ADMIN", admin.getAuthorities().iterator().next().getAuthority());
+        assertTrue(new User("ghost", "password", "ghost@example.com", null, "Unknown").getAuthorities().isEmpty());
+    }
+
+    @Test
+    void can_shouldTestPermissionBitsOfUserPrincipal() {
+        // Arrange
+        User admin = new User("admin", "password", "admin@example.com", null, "Admin");
+        User staff = new User("staff", "password", "staff@example.com", null, "Staff");
+
+        // Act & Assert
+        assertTrue(authz.can(authenticated(admin), "IMPORT_USERS"));
+        assertTrue(authz.can(authenticated(admin), Permission.MANAGE_COMPANY_BRANDING));
+        assertFalse(authz.can(authenticated(staff), "IMPORT_USERS"));
+        assertFalse(staff.hasPermission(Permission.VIEW_ALL_USERS));
+        assertFalse(authz.can(null, Permission.VIEW_ALL_USERS));
+    }
+
+    @Test
+    void hasPermission_shouldFollowARoleChange() {
+        // Arrange
+        User user = new User("staff", "password", "staff@example.com", null, "Staff");
+        assertFalse(user.hasPermission(Permission.IMPORT_USERS));
+
+        // Act
+        user.setRole("Admin");
+
+        // Assert
+        assertTrue(user.hasPermission(Permission.IMPORT_USERS));
+        assertSame(Role.ADMIN.authorities(), user.getAuthorities());
+    }
+
+    @Test
+    void can_shouldFallBackToRoleAuthoritiesForOtherPrincipals() {
+        TestingAuthenticationToken admin = new TestingAuthenticationToken("someone", null, "ROLE_ADMIN");
+        TestingAuthenticationToken other = new TestingAuthenticationToken("someone", null, "ROLE_AUDITOR");
+
+        assertTrue(authz.can(admin, Permission.VIEW_ALL_USERS));
+        assertFalse(authz.can(other, Permission.VIEW_ALL_USERS));
+        assertEquals(Role.ADMIN, Role.ofAuthority("ROLE_ADMIN"));
+    }
+
+    private static UsernamePasswordAuthenticationToken authenticated(User user) {
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+}
@@ -0,0 +1,107 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.auth.service.InvalidationBus;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class InvalidationBusTest {
+
+    private InvalidationBus.Listener listener;
+    private JdbcTemplate jdbcTemplate;
+    private InvalidationBus bus;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        listener = mock(InvalidationBus.Listener.class);
+        ObjectProvider<InvalidationBus.Listener> listeners = mock(ObjectProvider.class);
+        when(listeners.iterator()).thenAnswer(invocation -> List.of(listener).iterator());
+
+        bus = new InvalidationBus(listeners, mock(DataSource.class));
+        jdbcTemplate = mock(JdbcTemplate.class);
+        ReflectionTestUtils.setField(bus, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(bus, "enabled", true);
+        ReflectionTestUtils.setField(bus, "url", "jdbc:postgresql://localhost:5432/test");
+    }
+
+    @Test
+    void publish_shouldDeliverLocallyAndCoalesceIntoOneNotify() {
+        // Act
+        bus.publish(InvalidationBus.Event.user(7L));
+        bus.publish(InvalidationBus.Event.user(7L));
+        bus.publish(InvalidationBus.Event.company(3L));
+        bus.flush();
+        bus.flush();
+
+        // Assert
+        verify(listener, times(2)).onInvalidation(InvalidationBus.Event.user(7L));
+        verify(listener).onInvalidation(InvalidationBus.Event.company(3L));
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(String.class), eq("cache_invalidation"), payload.capture());
+        String[] lines = payload.getValue().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(List.of(lines).containsAll(List.of("U7", "C3")));
+    }
+
+    @Test
+    void receive_shouldDeliverEventsFromOtherNodesOnly() {
+        bus.publish(InvalidationBus.Event.user(1L));
+        ArgumentCaptor<String> own = ArgumentCaptor.forClass(String.class);
+        bus.flush();
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), anyString(), own.capture());
+        clearInvocations(listener);
+
+        // Our own batch echoed back is ignored, another node's is applied
+        ReflectionTestUtils.invokeMethod(bus, "receive", own.getValue());
+        ReflectionTestUtils.invokeMethod(bus, "receive", "other-node\nC5\nXgarbage");
+
+        verify(listener).onInvalidation(InvalidationBus.Event.company(5L));
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    void flush_shouldSplitBatchesAtThePayloadLimit() {
+        for (long id = 0; id < 2000; id++) {
+            bus.publish(InvalidationBus.Event.user(id));
+        }
+
+        bus.flush();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeast(2)).queryForObject(anyString(), eq(String.class), anyString(), payload.capture());
+        int events = 0;
+        for (String batch : payload.getAllValues()) {
+            assertTrue(batch.length() < 8000);
+            events += batch.split("\n").length - 1;
+        }
+        assertEquals(2000, events);
+    }
+
+    @Test
+    void flush_shouldRetryBatchesThatFailedToSend() {
+        bus.publish(InvalidationBus.Event.user(9L));
+        when(jdbcTemplate.queryForObject(anyString(), eq(String.class), anyString(), anyString()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn("");
+
+        bus.flush();
+        bus.flush();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(String.class), anyString(), payload.capture());
+        assertTrue(payload.getAllValues().get(1).endsWith("\nU9"));
+    }
+}
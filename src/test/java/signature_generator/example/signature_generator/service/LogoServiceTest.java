@@ -0,0 +1,83 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.auth.model.Company;
+import signature_generator.example.signature_generator.auth.service.CompanyService;
+import signature_generator.example.signature_generator.signature.service.LogoService;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class LogoServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CompanyService companyService;
+    private LogoService logoService;
+
+    @BeforeEach
+    void setUp() {
+        companyService = mock(CompanyService.class);
+        when(companyService.findById(1L)).thenReturn(new Company("Acme"));
+        // Runs the background pipeline inline
+        logoService = new LogoService(companyService, Runnable::run);
+        ReflectionTestUtils.setField(logoService, "logoDir", tempDir.toString());
+    }
+
+    @Test
+    void upload_shouldWriteEveryVariantThenPointTheCompanyAtIt() throws Exception {
+        // Arrange
+        byte[] png = png(1000, 500);
+
+        // Act
+        String logoHash = logoService.upload(1L, png);
+
+        // Assert
+        assertEquals(64, logoHash.length());
+        for (int size : LogoService.VARIANT_SIZES) {
+            Path variant = logoService.resolveVariant(LogoService.variantName(logoHash, size));
+            assertNotNull(variant);
+            BufferedImage image = ImageIO.read(variant.toFile());
+            assertEquals(size, image.getWidth());
+            assertEquals(size / 2, image.getHeight());
+        }
+        verify(companyService).setLogo(1L, logoHash);
+    }
+
+    @Test
+    void upload_shouldRejectSomethingThatIsNotAnImage() {
+        assertThrows(IllegalArgumentException.class, () -> logoService.upload(1L, "not an image".getBytes()));
+        verify(companyService, never()).setLogo(any(), anyString());
+    }
+
+    @Test
+    void upload_shouldRejectUnknownCompany() throws Exception {
+        byte[] png = png(10, 10);
+
+        assertThrows(IllegalArgumentException.class, () -> logoService.upload(2L, png));
+    }
+
+    @Test
+    void resolveVariant_shouldOnlyAcceptNamesWeProduce() {
+        assertNull(logoService.resolveVariant("../application.properties"));
+        assertNull(logoService.resolveVariant("a".repeat(64) + "-999.png"));
+        assertNull(logoService.resolveVariant("a".repeat(64) + "-128.png")); // Well-formed but not on disk
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,132 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.signature.service.PreviewService;
+import signature_generator.example.signature_generator.signature.service.PreviewService.Fragment;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService.SignatureContent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PreviewServiceTest {
+
+    private PreviewService previewService;
+
+    @BeforeEach
+    void setUp() {
+        SignatureRenderService signatureRenderService = mock(SignatureRenderService.class);
+        when(signatureRenderService.loadContent(1L)).thenReturn(new SignatureContent(1L, "jdoe", "Engineer",
+                "jdoe@acme.com", null, 9L, "Acme", "www.acme.com", "u0-p0-c9.0", null, null, "ab".repeat(32)));
+        previewService = new PreviewService(signatureRenderService);
+        ReflectionTestUtils.setField(previewService, "maxSessionsPerUser", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(previewService, "shutdown");
+    }
+
+    @Test
+    void edit_shouldReRenderOnlyTheLinesAFieldAffects() {
+        // Arrange
+        PreviewService.Session session = previewService.open(1L, 1L);
+
+        // Act
+        Map<Fragment, String> changed = previewService.edit(1L, session.id(), Map.of("companyName", "Acme <Labs>"));
+
+        // Assert
+        assertEquals(Set.of(Fragment.COMPANY, Fragment.LOGO), changed.keySet());
+        assertEquals("<strong>Company:</strong> Acme &lt;Labs&gt;<br>", changed.get(Fragment.COMPANY));
+        assertTrue(changed.get(Fragment.LOGO).contains("alt=\"Acme &lt;Labs&gt;\""));
+    }
+
+    @Test
+    void edit_shouldReportNothingWhenTheRenderedLineIsUnchanged() {
+        // Arrange
+        PreviewService.Session session = previewService.open(1L, 1L);
+        previewService.edit(1L, session.id(), Map.of("userTitle", "Lead"));
+
+        // Act
+        Map<Fragment, String> changed = previewService.edit(1L, session.id(), Map.of("userTitle", "Lead"));
+        Map<Fragment, String> cleared = previewService.edit(1L, session.id(), Map.of("companySite", ""));
+
+        // Assert
+        assertTrue(changed.isEmpty());
+        assertEquals(Map.of(Fragment.SITE, ""), cleared);
+    }
+
+    @Test
+    void edit_shouldRejectOtherUsersUnknownFieldsAndOversizedValues() {
+        // Arrange
+        PreviewService.Session session = previewService.open(1L, 1L);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> previewService.edit(2L, session.id(), Map.of("userTitle", "x")));
+        assertThrows(IllegalArgumentException.class, () -> previewService.edit(1L, session.id(), Map.of("email", "x")));
+        assertThrows(IllegalArgumentException.class,
+                () -> previewService.edit(1L, session.id(), Map.of("missionStatement", "x".repeat(1001))));
+    }
+
+    @Test
+    void open_shouldLimitSessionsPerUser() {
+        // Arrange
+        previewService.open(1L, 1L);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> previewService.open(1L, 1L));
+    }
+
+    @Test
+    void open_shouldFreeTheSlotWhenASessionCloses() {
+        // Arrange
+        PreviewService.Session first = previewService.open(1L, 1L);
+
+        // Act
+        ReflectionTestUtils.invokeMethod(previewService, "close", first);
+        ReflectionTestUtils.invokeMethod(previewService, "close", first);
+
+        // Assert
+        assertNotNull(previewService.open(1L, 1L));
+        assertThrows(IllegalArgumentException.class, () -> previewService.open(1L, 1L));
+    }
+
+    @Test
+    void open_shouldNotOvershootTheLimitUnderConcurrentOpens() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(previewService, "maxSessionsPerUser", 2);
+        AtomicInteger opened = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        // Act
+        for (int i = 0; i < 16; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    previewService.open(1L, 1L);
+                    opened.incrementAndGet();
+                } catch (InterruptedException | IllegalArgumentException ignored) {
+                    // Over the limit
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(2, opened.get());
+    }
+}
@@ -0,0 +1,42 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import signature_generator.example.signature_generator.auth.service.ProfileBackfillService;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProfileBackfillServiceTest {
+
+    @Test
+    void run_shouldCopyCompaniesThenProfilesWhenTheLegacyColumnsExist() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Object[].class))).thenReturn(5);
+        ProfileBackfillService backfill = new ProfileBackfillService(jdbcTemplate);
+
+        // Act
+        backfill.run(null);
+
+        // Assert
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(startsWith("insert into companies"));
+        order.verify(jdbcTemplate).update(startsWith("insert into user_profiles"));
+    }
+
+    @Test
+    void run_shouldDoNothingOnADatabaseWithoutTheLegacyColumns() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Object[].class))).thenReturn(0);
+        ProfileBackfillService backfill = new ProfileBackfillService(jdbcTemplate);
+
+        // Act
+        backfill.run(null);
+
+        // Assert
+        verify(jdbcTemplate, never()).update(anyString());
+    }
+}
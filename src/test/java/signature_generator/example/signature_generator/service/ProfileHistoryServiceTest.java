@@ -0,0 +1,194 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.auth.model.Company;
+import signature_generator.example.signature_generator.auth.model.ProfileRevision;
+import signature_generator.example.signature_generator.auth.model.ProfileRevision.Subject;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.repository.CompanyRepository;
+import signature_generator.example.signature_generator.auth.repository.ProfileRevisionRepository;
+import signature_generator.example.signature_generator.auth.repository.UserProfileRepository;
+import signature_generator.example.signature_generator.auth.repository.UserRepository;
+import signature_generator.example.signature_generator.auth.service.ProfileHistoryService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ProfileHistoryServiceTest {
+
+    private final List<ProfileRevision> saved = new ArrayList<>();
+    private CompanyRepository companyRepository;
+    private ProfileHistoryService profileHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        ProfileRevisionRepository profileRevisionRepository = mock(ProfileRevisionRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        UserProfileRepository userProfileRepository = mock(UserProfileRepository.class);
+        companyRepository = mock(CompanyRepository.class);
+
+        // Same rows the chain query selects: the latest keyframe at or before the revision and what follows it
+        when(profileRevisionRepository.findChain(any(), any(), anyInt())).thenAnswer(invocation -> {
+            Subject subject = invocation.getArgument(0);
+            Long subjectId = invocation.getArgument(1);
+            int revision = invocation.getArgument(2);
+            int start = saved.stream()
+                    .filter(r -> r.getSubjectType() == subject && r.getSubjectId().equals(subjectId)
+                            && r.isKeyframe() && r.getRevision() <= revision)
+                    .mapToInt(ProfileRevision::getRevision).max().orElse(Integer.MAX_VALUE);
+            return saved.stream()
+                    .filter(r -> r.getSubjectType() == subject && r.getSubjectId().equals(subjectId)
+                            && r.getRevision() >= start && r.getRevision() <= revision)
+                    .toList();
+        });
+        when(profileRevisionRepository.save(any(ProfileRevision.class))).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(userRepository.findById(any())).thenReturn(Optional.of(new User()));
+        when(userProfileRepository.findById(any())).thenReturn(Optional.empty());
+
+        profileHistoryService = new ProfileHistoryService(profileRevisionRepository, userRepository,
+                userProfileRepository, companyRepository);
+        ReflectionTestUtils.setField(profileHistoryService, "keyframeInterval", 4);
+    }
+
+    @Test
+    void reconstruct_shouldRebuildEveryRevisionAcrossKeyframes() {
+        // Arrange
+        List<Map<String, String>> expected = new ArrayList<>();
+        Map<String, String> state = new HashMap<>();
+        for (int i = 1; i <= 10; i++) {
+            state.put("userTitle", "Engineer level " + i);
+            if (i == 3) {
+                state.put("companyName", "Acme");
+            }
+            if (i == 6) {
+                state.put("companyName", null);
+            }
+            state.put("phone", "555-010" + (i % 3));
+            profileHistoryService.record(Subject.USER, 1L, new HashMap<>(state));
+            expected.add(new HashMap<>(state));
+        }
+
+        // Act & Assert
+        assertEquals(10, saved.size());
+        for (int revision = 1; revision <= 10; revision++) {
+            Map<String, String> fields = profileHistoryService.reconstruct(Subject.USER, 1L, revision);
+            Map<String, String> want = expected.get(revision - 1);
+            assertEquals(want.get("userTitle"), fields.get("userTitle"), "revision " + revision);
+            assertEquals(want.get("companyName"), fields.get("companyName"), "revision " + revision);
+            assertEquals(want.get("phone"), fields.get("phone"), "revision " + revision);
+        }
+        assertEquals(List.of(1, 5, 9), saved.stream().filter(ProfileRevision::isKeyframe)
+                .map(ProfileRevision::getRevision).toList());
+    }
+
+    @Test
+    void record_shouldStoreOnlyTheEditedPartOfALongField() {
+        // Arrange
+        Company company = new Company("Acme");
+        String mission = "We build dependable tools for teams who ship every day. ".repeat(20);
+        company.setMissionStatement(mission);
+        when(companyRepository.findById(2L)).thenReturn(Optional.of(company));
+        profileHistoryService.record(Subject.COMPANY, 2L, Map.of("missionStatement", mission));
+        int at = mission.indexOf("day", 200);
+        String edited = mission.substring(0, at) + "hour" + mission.substring(at + 3);
+
+        // Act
+        profileHistoryService.record(Subject.COMPANY, 2L, Map.of("missionStatement", edited));
+
+        // Assert
+        ProfileRevision delta = saved.get(1);
+        assertFalse(delta.isKeyframe());
+        assertTrue(delta.getDelta().length < 16, "delta was " + delta.getDelta().length + " bytes");
+        assertEquals(edited, profileHistoryService.reconstruct(Subject.COMPANY, 2L, 2).get("missionStatement"));
+        assertEquals(mission, profileHistoryService.reconstruct(Subject.COMPANY, 2L, 1).get("missionStatement"));
+    }
+
+    @Test
+    void prepare_shouldKeepTheStateFromBeforeTheFirstRecordedWrite() {
+        // Arrange
+        Company company = new Company("Acme");
+        company.setMissionStatement("Original mission");
+        when(companyRepository.findById(8L)).thenReturn(Optional.of(company));
+
+        // Act
+        profileHistoryService.prepare(Subject.COMPANY, 8L);
+        company.setMissionStatement("New mission");
+        profileHistoryService.record(Subject.COMPANY, 8L, Map.of("missionStatement", "New mission"));
+        profileHistoryService.prepare(Subject.COMPANY, 8L);
+
+        // Assert
+        assertEquals(2, saved.size());
+        assertEquals("Original mission", profileHistoryService.reconstruct(Subject.COMPANY, 8L, 1).get("missionStatement"));
+        assertEquals("New mission", profileHistoryService.reconstruct(Subject.COMPANY, 8L, 2).get("missionStatement"));
+        verify(companyRepository, times(3)).lockById(8L);
+    }
+
+    @Test
+    void record_shouldSkipWritesThatChangeNothing() {
+        // Arrange
+        profileHistoryService.record(Subject.USER, 3L, Map.of("userTitle", "CTO"));
+
+        // Act
+        profileHistoryService.record(Subject.USER, 3L, Map.of("userTitle", "CTO"));
+
+        // Assert
+        assertEquals(1, saved.size());
+    }
+
+    @Test
+    void record_shouldKeepSurrogatePairsIntactInEdits() {
+        // Arrange
+        profileHistoryService.record(Subject.USER, 4L, Map.of("userTitle", "Head of \uD83D\uDE00 culture"));
+
+        // Act
+        profileHistoryService.record(Subject.USER, 4L, Map.of("userTitle", "Head of \uD83D\uDE01 culture"));
+
+        // Assert
+        assertEquals("Head of \uD83D\uDE01 culture", profileHistoryService.reconstruct(Subject.USER, 4L, 2).get("userTitle"));
+        assertEquals("Head of \uD83D\uDE00 culture", profileHistoryService.reconstruct(Subject.USER, 4L, 1).get("userTitle"));
+    }
+
+    @Test
+    void history_shouldListChangedFieldsWithoutRebuilding() {
+        // Arrange
+        profileHistoryService.record(Subject.USER, 5L, Map.of("userTitle", "Designer"));
+        profileHistoryService.record(Subject.USER, 5L, Map.of("phone", "555-0199"));
+        ProfileRevisionRepository repository = (ProfileRevisionRepository) ReflectionTestUtils
+                .getField(profileHistoryService, "profileRevisionRepository");
+        when(repository.findBySubjectTypeAndSubjectIdOrderByRevisionDesc(eq(Subject.USER), eq(5L), any()))
+                .thenReturn(List.of(saved.get(1), saved.get(0)));
+
+        // Act
+        List<ProfileHistoryService.RevisionInfo> history = profileHistoryService.history(Subject.USER, 5L, 0, 50);
+
+        // Assert
+        assertEquals(2, history.get(0).revision());
+        assertEquals(List.of("phone"), history.get(0).fields());
+        assertTrue(history.get(1).keyframe());
+        assertEquals(List.of("userTitle"), history.get(1).fields());
+    }
+
+    @Test
+    void reconstruct_shouldRejectUnknownRevisions() {
+        // Arrange
+        profileHistoryService.record(Subject.USER, 6L, Map.of("userTitle", "Analyst"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> profileHistoryService.reconstruct(Subject.USER, 6L, 2));
+        assertThrows(IllegalArgumentException.class, () -> profileHistoryService.reconstruct(Subject.USER, 6L, 0));
+    }
+}
@@ -0,0 +1,68 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.signature.service.PublicLinkService;
+import signature_generator.example.signature_generator.signature.service.QrCodeService;
+import signature_generator.example.signature_generator.signature.service.SignatureImageService;
+import signature_generator.example.signature_generator.signature.service.SignatureImageService.Format;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class PublicLinkServiceTest {
+
+    private PublicLinkService publicLinkService;
+
+    @BeforeEach
+    void setUp() {
+        SignatureImageService signatureImageService = mock(SignatureImageService.class);
+        when(signatureImageService.render(7L, Format.PNG)).thenReturn(new SignatureImageService.RenderedImage(
+                new byte[0], "image/png", "u3-p1-cnone-t1", "\"u3-p1-cnone-t1-png\"", null));
+
+        publicLinkService = new PublicLinkService(signatureImageService, mock(QrCodeService.class));
+        ReflectionTestUtils.setField(publicLinkService, "secret", "test-secret");
+        ReflectionTestUtils.setField(publicLinkService, "publicBaseUrl", "https://sig.example.com");
+        ReflectionTestUtils.invokeMethod(publicLinkService, "init");
+    }
+
+    @Test
+    void createImageLink_shouldProduceALinkThatVerifies() {
+        // Act
+        String url = publicLinkService.createImageLink(7L, Format.PNG);
+
+        // Assert
+        assertTrue(url.startsWith("https://sig.example.com/assets/signatures/7/u3-p1-cnone-t1/"));
+        assertTrue(url.endsWith(".png"));
+        String signature = url.substring(url.lastIndexOf('/') + 1, url.length() - ".png".length());
+        assertTrue(publicLinkService.verify(7L, "u3-p1-cnone-t1", Format.PNG, signature));
+    }
+
+    @Test
+    void verify_shouldRejectALinkMovedToAnotherUserVersionOrFormat() {
+        String url = publicLinkService.createImageLink(7L, Format.PNG);
+        String signature = url.substring(url.lastIndexOf('/') + 1, url.length() - ".png".length());
+
+        assertFalse(publicLinkService.verify(8L, "u3-p1-cnone-t1", Format.PNG, signature));
+        assertFalse(publicLinkService.verify(7L, "u4-p1-cnone-t1", Format.PNG, signature));
+        assertFalse(publicLinkService.verify(7L, "u3-p1-cnone-t1", Format.WEBP, signature));
+        assertFalse(publicLinkService.verify(7L, "../etc", Format.PNG, signature));
+        assertFalse(publicLinkService.verify(7L, "u3-p1-cnone-t1", Format.PNG, null));
+    }
+
+    @Test
+    void verifyClick_shouldReturnTheSignedTargetOnly() {
+        // Arrange
+        String url = publicLinkService.createClickLink(7L, "website", "https://example.com/about?a=1");
+        String[] parts = url.substring("https://sig.example.com/assets/t/c/".length()).split("/");
+
+        // Assert
+        assertEquals("https://example.com/about?a=1", publicLinkService.verifyClick(7L, parts[1], parts[2], parts[3]));
+        assertNull(publicLinkService.verifyClick(8L, parts[1], parts[2], parts[3]));
+        assertNull(publicLinkService.verifyClick(7L, "other", parts[2], parts[3]));
+        assertNull(publicLinkService.verifyClick(7L, parts[1], "aHR0cHM6Ly9ldmlsLmV4YW1wbGU", parts[3]));
+        assertThrows(IllegalArgumentException.class,
+                () -> publicLinkService.createClickLink(7L, "website", "javascript:alert(1)"));
+    }
+}
@@ -0,0 +1,93 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.auth.service.InvalidationBus;
+import signature_generator.example.signature_generator.signature.service.QrCode;
+import signature_generator.example.signature_generator.signature.service.QrCodeService;
+import signature_generator.example.signature_generator.signature.service.QrCodeService.Format;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService.SignatureContent;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class QrCodeServiceTest {
+
+    private SignatureRenderService signatureRenderService;
+    private QrCodeService qrCodeService;
+
+    @BeforeEach
+    void setUp() {
+        signatureRenderService = mock(SignatureRenderService.class);
+        qrCodeService = new QrCodeService(signatureRenderService);
+        ReflectionTestUtils.invokeMethod(qrCodeService, "init");
+        when(signatureRenderService.loadContent(1L)).thenReturn(new SignatureContent(1L, "jdoe", "Engineer",
+                "jdoe@acme.com", "5550001111", 9L, "Acme", "www.acme.com", "u0-p0-c9.0", null, null, null));
+    }
+
+    @Test
+    void render_shouldEncodeOncePerProfileVersion() throws Exception {
+        // Act
+        QrCodeService.QrImage png = qrCodeService.render(1L, Format.PNG);
+        QrCodeService.QrImage again = qrCodeService.render(1L, Format.PNG);
+        QrCodeService.QrImage svg = qrCodeService.render(1L, Format.SVG);
+
+        // Assert
+        verify(signatureRenderService, times(1)).loadContent(1L);
+        assertSame(png, again);
+        assertEquals("\"qr-u0-p0-c9.0-png\"", png.etag());
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png.bytes()));
+        assertEquals(image.getWidth(), image.getHeight());
+        assertEquals(0, (image.getWidth() / 4 - 8 - 17) % 4);
+        // Top-left finder pattern starts right after the 4-module quiet zone
+        assertEquals(0xFFFFFF, image.getRGB(15, 15) & 0xFFFFFF);
+        assertEquals(0x000000, image.getRGB(16, 16) & 0xFFFFFF);
+
+        String markup = new String(svg.bytes(), StandardCharsets.UTF_8);
+        assertTrue(markup.startsWith("<svg"));
+        assertTrue(markup.contains("M4,4h7v1h-7z"));
+    }
+
+    @Test
+    void onInvalidation_shouldReEncodeAfterAProfileChange() {
+        // Arrange
+        qrCodeService.render(1L, Format.PNG);
+
+        // Act
+        qrCodeService.onInvalidation(InvalidationBus.Event.user(1L));
+        qrCodeService.render(1L, Format.PNG);
+
+        // Assert
+        verify(signatureRenderService, times(2)).loadContent(1L);
+    }
+
+    @Test
+    void encodeText_shouldPickTheSmallestVersionAndDrawFunctionPatterns() {
+        // Act
+        QrCode small = QrCode.encodeText("hello", QrCode.Ecc.MEDIUM);
+        QrCode large = QrCode.encodeText("x".repeat(300), QrCode.Ecc.QUARTILE);
+
+        // Assert
+        assertEquals(1, small.version());
+        assertEquals(21, small.size());
+        assertEquals(16, large.version());
+        for (int i = 0; i < 7; i++) {
+            assertTrue(large.isDark(i, 0));
+            assertTrue(large.isDark(large.size() - 1 - i, 0));
+            assertTrue(large.isDark(0, large.size() - 1 - i));
+        }
+        // Dark module next to the bottom-left format area, and alternating timing pattern
+        assertTrue(large.isDark(8, large.size() - 8));
+        assertTrue(large.isDark(8, 6));
+        assertFalse(large.isDark(9, 6));
+        assertThrows(IllegalArgumentException.class, () -> QrCode.encodeText("x".repeat(3000), QrCode.Ecc.LOW));
+    }
+}
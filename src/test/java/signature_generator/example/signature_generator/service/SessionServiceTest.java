@@ -0,0 +1,126 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.auth.service.SessionService;
+import signature_generator.example.signature_generator.auth.util.OffHeapSessionStore;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SessionService sessionService;
+
+    @AfterEach
+    void tearDown() {
+        close(sessionService);
+    }
+
+    @Test
+    void issue_shouldResolveUntilInvalidated() {
+        // Arrange
+        sessionService = open(16, 60_000);
+
+        // Act
+        String token = sessionService.issue(42L);
+
+        // Assert
+        assertTrue(sessionService.isSessionToken(token));
+        assertEquals(42L, sessionService.resolve(token));
+        assertTrue(sessionService.invalidate(token));
+        assertNull(sessionService.resolve(token));
+        assertFalse(sessionService.invalidate(token));
+    }
+
+    @Test
+    void resolve_shouldRejectForgedSecretAndExpiredSessions() {
+        // Arrange
+        sessionService = open(16, 60_000);
+        String token = sessionService.issue(42L);
+        char last = token.charAt(token.length() - 2);
+        String forged = token.substring(0, token.length() - 2) + (last == 'A' ? 'B' : 'A') + token.charAt(token.length() - 1);
+
+        // Assert
+        assertNull(sessionService.resolve(forged));
+        assertNull(sessionService.resolve("ses_short"));
+        assertFalse(sessionService.isSessionToken("eyJhbGciOiJIUzI1NiJ9.e30.sig"));
+
+        ReflectionTestUtils.setField(sessionService, "ttlMs", -1L);
+        assertNull(sessionService.resolve(sessionService.issue(7L)));
+    }
+
+    @Test
+    void sessions_shouldSurviveReopeningTheStore() {
+        // Arrange
+        sessionService = open(16, 60_000);
+        String token = sessionService.issue(42L);
+        close(sessionService);
+
+        // Act
+        sessionService = open(16, 60_000);
+
+        // Assert
+        assertEquals(42L, sessionService.resolve(token));
+    }
+
+    @Test
+    void issue_shouldReuseReleasedSlotsAndFailWhenFull() {
+        // Arrange
+        sessionService = open(2, 60_000);
+        String first = sessionService.issue(1L);
+        sessionService.issue(2L);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> sessionService.issue(3L));
+        sessionService.invalidate(first);
+        String reused = sessionService.issue(3L);
+        assertEquals(3L, sessionService.resolve(reused));
+        assertNull(sessionService.resolve(first));
+    }
+
+    @Test
+    void sweep_shouldKeepLiveSessions() {
+        // Arrange
+        sessionService = open(64, 60_000);
+        List<String> tokens = new ArrayList<>();
+        for (long userId = 1; userId <= 64; userId++) {
+            tokens.add(sessionService.issue(userId));
+        }
+        OffHeapSessionStore store = (OffHeapSessionStore) ReflectionTestUtils.getField(sessionService, "store");
+
+        // Act
+        int reclaimed = store.sweepExpired(System.currentTimeMillis());
+
+        // Assert
+        assertEquals(0, reclaimed);
+        assertThrows(IllegalStateException.class, () -> sessionService.issue(65L));
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(i + 1L, sessionService.resolve(tokens.get(i)));
+        }
+    }
+
+    private SessionService open(int capacity, long ttlMs) {
+        SessionService service = new SessionService();
+        ReflectionTestUtils.setField(service, "mode", "opaque");
+        ReflectionTestUtils.setField(service, "storePath", tempDir.resolve("sessions.dat").toString());
+        ReflectionTestUtils.setField(service, "capacity", capacity);
+        ReflectionTestUtils.setField(service, "ttlMs", ttlMs);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    private static void close(SessionService service) {
+        if (service != null) {
+            ReflectionTestUtils.invokeMethod(service, "close");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import signature_generator.example.signature_generator.signature.model.SignatureStat;
+import signature_generator.example.signature_generator.signature.repository.SignatureStatRepository;
+import signature_generator.example.signature_generator.signature.service.SignatureAnalyticsService;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SignatureAnalyticsServiceTest {
+
+    private SignatureStatRepository signatureStatRepository;
+    private SignatureAnalyticsService signatureAnalyticsService;
+
+    @BeforeEach
+    void setUp() {
+        signatureStatRepository = mock(SignatureStatRepository.class);
+        signatureAnalyticsService = new SignatureAnalyticsService(signatureStatRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldWriteAggregatedCountsOneIntervalLater() {
+        // Arrange
+        signatureAnalyticsService.recordOpen(7L);
+        signatureAnalyticsService.recordOpen(7L);
+        signatureAnalyticsService.recordClick(7L, "website");
+
+        // Act
+        signatureAnalyticsService.flush();
+        verify(signatureStatRepository, never()).addAll(anyMap());
+        signatureAnalyticsService.flush();
+
+        // Assert
+        ArgumentCaptor<Map<SignatureStat.Key, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(signatureStatRepository).addAll(captor.capture());
+        Map<SignatureStat.Key, Long> counts = captor.getValue();
+        assertEquals(2, counts.size());
+        counts.forEach((key, hits) -> {
+            if (key.getKind() == SignatureStat.Kind.OPEN) {
+                assertEquals(SignatureAnalyticsService.OPEN_LINK, key.getLink());
+                assertEquals(2L, hits);
+            } else {
+                assertEquals("website", key.getLink());
+                assertEquals(1L, hits);
+            }
+        });
+    }
+
+    @Test
+    void flush_shouldKeepCountsWhenTheWriteFails() {
+        // Arrange
+        doThrow(new RuntimeException("database down")).doNothing().when(signatureStatRepository).addAll(anyMap());
+        signatureAnalyticsService.recordOpen(7L);
+        signatureAnalyticsService.flush();
+
+        // Act
+        signatureAnalyticsService.flush();
+        signatureAnalyticsService.flush();
+        signatureAnalyticsService.flush();
+
+        // Assert
+        verify(signatureStatRepository, times(2)).addAll(anyMap());
+        List<SignatureStat> stats = signatureAnalyticsService.findStats(7L, Instant.EPOCH, Instant.now().plusSeconds(3600));
+        assertTrue(stats.isEmpty());
+    }
+
+    @Test
+    void findStats_shouldMergeStoredRowsWithUnflushedCounts() {
+        // Arrange
+        signatureAnalyticsService.recordOpen(7L);
+        signatureAnalyticsService.recordOpen(8L);
+        List<SignatureStat> pending = signatureAnalyticsService.findStats(7L, Instant.EPOCH, Instant.now().plusSeconds(3600));
+        SignatureStat stored = new SignatureStat();
+        stored.setKey(pending.get(0).getKey());
+        stored.setHits(5);
+        when(signatureStatRepository.findByUser(eq(7L), any(), any())).thenReturn(List.of(stored));
+
+        // Act
+        List<SignatureStat> stats = signatureAnalyticsService.findStats(7L, Instant.EPOCH, Instant.now().plusSeconds(3600));
+
+        // Assert
+        assertEquals(1, stats.size());
+        assertEquals(6L, stats.get(0).getHits());
+        assertEquals(7L, stats.get(0).getKey().getUserId());
+    }
+
+    @Test
+    void isValidLinkName_shouldOnlyAcceptShortSlugs() {
+        assertTrue(SignatureAnalyticsService.isValidLinkName("website"));
+        assertTrue(SignatureAnalyticsService.isValidLinkName("linked-in-2"));
+        assertFalse(SignatureAnalyticsService.isValidLinkName("Website"));
+        assertFalse(SignatureAnalyticsService.isValidLinkName("a/b"));
+        assertFalse(SignatureAnalyticsService.isValidLinkName(""));
+        assertFalse(SignatureAnalyticsService.isValidLinkName(null));
+    }
+}
@@ -0,0 +1,104 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.signature.service.SignatureExportService;
+import signature_generator.example.signature_generator.signature.service.SignatureExportService.Format;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService.SignatureContent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SignatureExportServiceTest {
+
+    private SignatureRenderService signatureRenderService;
+    private SignatureExportService signatureExportService;
+
+    @BeforeEach
+    void setUp() {
+        signatureRenderService = mock(SignatureRenderService.class);
+        signatureExportService = new SignatureExportService(signatureRenderService);
+        ReflectionTestUtils.setField(signatureExportService, "publicBaseUrl", "https://sig.example.com");
+        when(signatureRenderService.loadContent(1L)).thenReturn(new SignatureContent(1L, "Jane Doe", "Engineer",
+                "jane@acme.com", "+1 (555) 000-1111", 9L, "Acme, <Corp>", "www.acme.com", "u0-p0-c9.0",
+                "Build things", "1 Main St; Springfield", "ab".repeat(32)));
+        when(signatureRenderService.loadContent(2L)).thenThrow(new IllegalArgumentException("User not found"));
+    }
+
+    @Test
+    void write_shouldProduceEveryFormatFromOneLoad() throws Exception {
+        // Arrange
+        List<SignatureContent> contents = signatureExportService.load(List.of(1L, 2L));
+
+        // Act
+        Map<String, String> entries = export(contents, EnumSet.allOf(Format.class));
+
+        // Assert
+        verify(signatureRenderService, times(1)).loadContent(1L);
+        assertEquals(List.of("1-jane-doe/outlook/signature.htm", "1-jane-doe/outlook/signature.txt",
+                "1-jane-doe/gmail.html", "1-jane-doe/apple-mail.mailsignature",
+                "1-jane-doe/signature.txt", "1-jane-doe/contact.vcf"), List.copyOf(entries.keySet()));
+
+        String gmail = entries.get("1-jane-doe/gmail.html");
+        assertFalse(gmail.contains("<style"));
+        assertFalse(gmail.contains("class="));
+        assertTrue(gmail.contains("Acme, &lt;Corp&gt;"));
+        assertTrue(gmail.contains("href=\"mailto:jane@acme.com\""));
+        assertTrue(gmail.contains("href=\"tel:+15550001111\""));
+        assertTrue(gmail.contains("src=\"https://sig.example.com/assets/logos/" + "ab".repeat(32) + "-128.png\""));
+
+        assertTrue(entries.get("1-jane-doe/outlook/signature.htm").contains(gmail));
+        assertTrue(entries.get("1-jane-doe/apple-mail.mailsignature").startsWith("Content-Transfer-Encoding: 8bit\r\n"));
+        assertEquals(entries.get("1-jane-doe/signature.txt"), entries.get("1-jane-doe/outlook/signature.txt"));
+        assertTrue(entries.get("1-jane-doe/signature.txt").contains("Website: www.acme.com\r\n"));
+    }
+
+    @Test
+    void write_shouldEscapeAndFoldVCardLines() throws Exception {
+        // Act
+        String vcard = export(signatureExportService.load(List.of(1L)), EnumSet.of(Format.VCARD)).get("1-jane-doe/contact.vcf");
+
+        // Assert
+        assertTrue(vcard.startsWith("BEGIN:VCARD\r\nVERSION:3.0\r\nFN:Jane Doe\r\n"));
+        assertTrue(vcard.contains("ORG:Acme\\, <Corp>\r\n"));
+        assertTrue(vcard.contains("ADR;TYPE=WORK:;;1 Main St\\; Springfield;;;;\r\n"));
+        assertTrue(vcard.endsWith("END:VCARD\r\n"));
+        for (String line : vcard.split("\r\n")) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+        }
+        assertTrue(vcard.contains("\r\n "));
+    }
+
+    @Test
+    void formatParse_shouldDefaultToEverythingAndRejectUnknownNames() {
+        assertEquals(EnumSet.allOf(Format.class), Format.parse(null));
+        assertEquals(EnumSet.of(Format.APPLE_MAIL, Format.TEXT), Format.parse(List.of("apple-mail", "TEXT")));
+        assertThrows(IllegalArgumentException.class, () -> Format.parse(List.of("lotus")));
+    }
+
+    private Map<String, String> export(List<SignatureContent> contents, EnumSet<Format> formats) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        signatureExportService.write(contents, formats, out);
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,78 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.auth.service.InvalidationBus;
+import signature_generator.example.signature_generator.signature.service.SignatureImageService;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService.SignatureContent;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SignatureImageServiceTest {
+
+    private SignatureRenderService signatureRenderService;
+    private SignatureImageService signatureImageService;
+
+    @BeforeEach
+    void setUp() {
+        signatureRenderService = mock(SignatureRenderService.class);
+        signatureImageService = new SignatureImageService(signatureRenderService, Runnable::run);
+        ReflectionTestUtils.invokeMethod(signatureImageService, "init");
+        when(signatureRenderService.loadContent(1L)).thenReturn(new SignatureContent(1L, "jdoe", "Engineer",
+                "jdoe@acme.com", "5550001111", 9L, "Acme", "www.acme.com", "u0-p0-c9.0",
+                null, null, null));
+    }
+
+    @Test
+    void render_shouldProduceADecodablePng() throws Exception {
+        // Act
+        SignatureImageService.RenderedImage image = signatureImageService.render(1L, SignatureImageService.Format.PNG);
+
+        // Assert
+        assertEquals("image/png", image.contentType());
+        assertTrue(image.etag().contains("u0-p0-c9.0"));
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(image.bytes()));
+        assertNotNull(decoded);
+        assertTrue(decoded.getWidth() > 0 && decoded.getWidth() <= 600);
+        assertTrue(decoded.getHeight() > 0 && decoded.getHeight() <= 240);
+    }
+
+    @Test
+    void render_shouldServeRepeatsFromCacheUntilInvalidated() {
+        // Arrange
+        SignatureImageService.RenderedImage first = signatureImageService.render(1L, SignatureImageService.Format.PNG);
+
+        // Act
+        SignatureImageService.RenderedImage second = signatureImageService.render(1L, SignatureImageService.Format.PNG);
+        signatureImageService.onInvalidation(InvalidationBus.Event.company(9L));
+        SignatureImageService.RenderedImage third = signatureImageService.render(1L, SignatureImageService.Format.PNG);
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(first, third);
+        verify(signatureRenderService, times(2)).loadContent(1L);
+    }
+
+    @Test
+    void render_shouldReportBusyWhenThePoolRejects() {
+        SignatureImageService busy = new SignatureImageService(signatureRenderService, command -> {
+            throw new RejectedExecutionException("full");
+        });
+        ReflectionTestUtils.invokeMethod(busy, "init");
+
+        assertThrows(IllegalStateException.class, () -> busy.render(1L, SignatureImageService.Format.PNG));
+    }
+
+    @Test
+    void format_shouldRejectUnknownNames() {
+        assertThrows(IllegalArgumentException.class, () -> SignatureImageService.Format.of("gif"));
+    }
+}
@@ -0,0 +1,133 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import signature_generator.example.signature_generator.auth.model.Company;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.model.UserProfile;
+import signature_generator.example.signature_generator.auth.service.InvalidationBus;
+import signature_generator.example.signature_generator.auth.service.UserService;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService;
+import signature_generator.example.signature_generator.signature.service.SignatureTemplate;
+import signature_generator.example.signature_generator.signature.service.TemplateRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SignatureRenderServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private TemplateRegistry templateRegistry;
+
+    @InjectMocks
+    private SignatureRenderService signatureRenderService;
+
+    @Test
+    void renderHtml_shouldIncludeUserAndCompanyFields() {
+        // Arrange
+        Company company = company(1L, 0L, "Acme <Corp>");
+        stubUser(1L, "jdoe", "jdoe@acme.com", company);
+
+        // Act
+        String html = signatureRenderService.renderHtml(1L);
+
+        // Assert
+        assertTrue(html.contains("<strong>Name:</strong> jdoe<br>"));
+        assertTrue(html.contains("<strong>Email:</strong> jdoe@acme.com<br>"));
+        assertTrue(html.contains("<strong>Company:</strong> Acme &lt;Corp&gt;<br>"));
+        assertTrue(html.contains("<a href=\"https://www.acme.com\" target=\"_blank\">www.acme.com</a>"));
+    }
+
+    @Test
+    void renderHtml_shouldReflectBrandingChangeForEveryMember() {
+        // Arrange
+        Company company = company(1L, 0L, "Acme");
+        stubUser(1L, "first", "first@acme.com", company);
+        stubUser(2L, "second", "second@acme.com", company);
+        signatureRenderService.renderHtml(1L);
+
+        // Act
+        company.setMissionStatement("New mission");
+        company.setVersion(1L);
+        String html = signatureRenderService.renderHtml(2L);
+
+        // Assert
+        assertTrue(html.contains("<strong>Mission:</strong> New mission<br>"));
+    }
+
+    @Test
+    void renderHtml_shouldThrowWhenUserNotFound() {
+        when(userService.findById(9L)).thenReturn(null);
+
+        assertThrows(IllegalArgumentException.class, () -> signatureRenderService.renderHtml(9L));
+        verify(userService, never()).findProfile(9L);
+    }
+
+    @Test
+    void renderHtml_shouldRenderLoadedTemplateAndReRenderOnlyWhenItsVersionChanges() {
+        // Arrange
+        stubUser(1L, "jdoe", "jdoe@acme.com", company(1L, 0L, "Acme"));
+        when(templateRegistry.find(SignatureRenderService.TEMPLATE_NAME))
+                .thenReturn(SignatureTemplate.compile("signature", 1, "<p>{{name}}{{#company}} at {{company}}{{/company}}</p>"));
+        signatureRenderService.renderHtml(1L);
+
+        // Act
+        String cached = signatureRenderService.renderHtml(1L);
+        when(templateRegistry.find(SignatureRenderService.TEMPLATE_NAME))
+                .thenReturn(SignatureTemplate.compile("signature", 2, "<b>{{name}}</b>"));
+        String swapped = signatureRenderService.renderHtml(1L);
+
+        // Assert
+        assertEquals("<p>jdoe at Acme</p>", cached);
+        assertEquals("<b>jdoe</b>", swapped);
+        verify(userService, times(2)).findById(1L);
+    }
+
+    @Test
+    void renderHtml_shouldNotCacheATemplateRenderLoadedAcrossAnInvalidation() {
+        // Arrange
+        User user = new User("jdoe", "hash", "jdoe@acme.com", "1234567890", "Staff");
+        user.setId(1L);
+        when(templateRegistry.find(SignatureRenderService.TEMPLATE_NAME))
+                .thenReturn(SignatureTemplate.compile("signature", 1, "<p>{{name}}</p>"));
+        // The write commits while the first render is still reading
+        when(userService.findById(1L)).thenAnswer(invocation -> {
+            signatureRenderService.onInvalidation(InvalidationBus.Event.user(1L));
+            return user;
+        }).thenReturn(user);
+
+        // Act
+        signatureRenderService.renderHtml(1L);
+        signatureRenderService.renderHtml(1L);
+        signatureRenderService.renderHtml(1L);
+
+        // Assert
+        verify(userService, times(2)).findById(1L);
+    }
+
+    private void stubUser(Long userId, String username, String email, Company company) {
+        User user = new User(username, "hash", email, "1234567890", "Staff");
+        user.setId(userId);
+        UserProfile profile = new UserProfile(user);
+        profile.setCompany(company);
+
+        when(userService.findById(userId)).thenReturn(user);
+        when(userService.findProfile(userId)).thenReturn(profile);
+    }
+
+    private static Company company(Long id, Long version, String name) {
+        Company company = new Company(name);
+        company.setId(id);
+        company.setVersion(version);
+        company.setMissionStatement("Old mission");
+        company.setSite("www.acme.com");
+        return company;
+    }
+}
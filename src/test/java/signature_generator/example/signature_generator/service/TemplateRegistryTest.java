@@ -0,0 +1,96 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.signature.service.SignatureRenderService.SignatureContent;
+import signature_generator.example.signature_generator.signature.service.SignatureTemplate;
+import signature_generator.example.signature_generator.signature.service.TemplateRegistry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateRegistryTest {
+
+    private static final SignatureContent CONTENT = new SignatureContent(1L, "Jane <Doe>", null, "jane@acme.com",
+            null, 9L, "Acme", "www.acme.com", "u0-p0-c9.0", null, null, "ab".repeat(32));
+
+    @TempDir
+    Path dir;
+
+    private TemplateRegistry templateRegistry;
+
+    @BeforeEach
+    void setUp() {
+        templateRegistry = new TemplateRegistry();
+        ReflectionTestUtils.setField(templateRegistry, "templatesDir", dir.toString());
+        ReflectionTestUtils.setField(templateRegistry, "watch", false);
+    }
+
+    @Test
+    void compile_shouldEscapeValuesAndSkipEmptySections() {
+        // Arrange
+        SignatureTemplate template = SignatureTemplate.compile("signature", 1,
+                "{{name}}{{#title}}, {{title}}{{/title}} <a href=\"{{site-url}}\">{{site}}</a> <img src=\"{{logo_url}}\">");
+
+        // Act
+        String html = template.render(CONTENT, "https://sig.example.com");
+
+        // Assert
+        assertEquals("Jane &lt;Doe&gt; <a href=\"https://www.acme.com\">www.acme.com</a> "
+                + "<img src=\"https://sig.example.com/assets/logos/" + "ab".repeat(32) + "-128.png\">", html);
+    }
+
+    @Test
+    void compile_shouldRejectUnknownFieldsAndUnbalancedSections() {
+        assertThrows(IllegalArgumentException.class, () -> SignatureTemplate.compile("t", 1, "{{salary}}"));
+        assertThrows(IllegalArgumentException.class, () -> SignatureTemplate.compile("t", 1, "{{#name}}x"));
+        assertThrows(IllegalArgumentException.class, () -> SignatureTemplate.compile("t", 1, "{{#name}}x{{/title}}"));
+        assertThrows(IllegalArgumentException.class, () -> SignatureTemplate.compile("t", 1, "{{name"));
+    }
+
+    @Test
+    void load_shouldKeepServingTheOldVersionUntilAnEditCompiles() throws Exception {
+        // Arrange
+        Path file = dir.resolve("signature.html");
+        Files.writeString(file, "<p>{{name}}</p>");
+        ReflectionTestUtils.invokeMethod(templateRegistry, "start");
+        SignatureTemplate first = templateRegistry.find("signature");
+
+        // Act
+        Files.writeString(file, "<p>{{#name}}{{name}}</p>");
+        ReflectionTestUtils.invokeMethod(templateRegistry, "load", file);
+        SignatureTemplate afterBrokenEdit = templateRegistry.find("signature");
+
+        Files.writeString(file, "<b>{{name}}</b>");
+        ReflectionTestUtils.invokeMethod(templateRegistry, "load", file);
+        SignatureTemplate afterFix = templateRegistry.find("signature");
+
+        ReflectionTestUtils.invokeMethod(templateRegistry, "load", file);
+        SignatureTemplate afterTouch = templateRegistry.find("signature");
+
+        // Assert
+        assertSame(first, afterBrokenEdit);
+        assertEquals("<b>Jane &lt;Doe&gt;</b>", afterFix.render(CONTENT, ""));
+        assertTrue(afterFix.version() > first.version());
+        assertSame(afterFix, afterTouch);
+    }
+
+    @Test
+    void load_shouldFallBackToBuiltInLayoutWhenTheFileIsDeleted() throws Exception {
+        // Arrange
+        Path file = dir.resolve("signature.html");
+        Files.writeString(file, "<p>{{name}}</p>");
+        ReflectionTestUtils.invokeMethod(templateRegistry, "start");
+
+        // Act
+        Files.delete(file);
+        ReflectionTestUtils.invokeMethod(templateRegistry, "load", file);
+
+        // Assert
+        assertNull(templateRegistry.find("signature"));
+    }
+}
@@ -0,0 +1,124 @@
+package signature_generator.example.signature_generator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.repository.UserBatchRepository;
+import signature_generator.example.signature_generator.auth.repository.UserRepository;
+import signature_generator.example.signature_generator.auth.service.EmailService;
+import signature_generator.example.signature_generator.auth.service.UserImportService;
+import signature_generator.example.signature_generator.auth.service.VerificationLinkService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserBatchRepository userBatchRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private VerificationLinkService verificationLinkService;
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        // Low BCrypt cost keeps the test fast, the hashing path is the same
+        userImportService = new UserImportService(userRepository, userBatchRepository, emailService, verificationLinkService,
+                new BCryptPasswordEncoder(4), transactionManager, new ObjectMapper());
+    }
+
+    @Test
+    void importUsers_shouldBatchInsertValidCsvRowsAndQueueInvitations() throws IOException {
+        // Arrange
+        String csv = "username,email,password,phone\n"
+                + "alice,alice@acme.com,secret1,111\n"
+                + "\"bob, jr\",bob@acme.com,secret2,222\n"
+                + "carol,not-an-email,secret3,333\n"
+                + "dave,alice@acme.com,secret4,444\n";
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of());
+        when(userRepository.findIdsByEmails(List.of("alice@acme.com", "bob@acme.com")))
+                .thenReturn(List.of(idAndEmail(11L, "alice@acme.com"), idAndEmail(12L, "bob@acme.com")));
+        when(verificationLinkService.createLink(anyLong())).thenAnswer(call -> "https://verify?token=" + call.getArgument(0));
+
+        // Act
+        UserImportService.ImportResult result = userImportService.importUsers(stream(csv), UserImportService.Format.CSV);
+
+        // Assert
+        assertEquals(2, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals(4, result.errors().get(0).line());
+        assertEquals(5, result.errors().get(1).line());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<User>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(userBatchRepository, times(1)).insertAll(inserted.capture());
+        assertEquals(List.of("alice", "bob, jr"), inserted.getValue().stream().map(User::getDisplayName).toList());
+        assertTrue(new BCryptPasswordEncoder().matches("secret1", inserted.getValue().get(0).getPassword()));
+        assertEquals("Staff", inserted.getValue().get(0).getRole());
+
+        verify(emailService).sendEmailAsync(eq("alice@acme.com"), eq("Verify Your Email"), contains("token=11"));
+        verify(emailService).sendEmailAsync(eq("bob@acme.com"), eq("Verify Your Email"), contains("token=12"));
+        verify(emailService, never()).sendEmail(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void importUsers_shouldRejectNdjsonRowsThatAlreadyExist() throws IOException {
+        // Arrange
+        String ndjson = "{\"username\":\"alice\",\"email\":\"alice@acme.com\",\"password\":\"secret1\"}\n"
+                + "{\"username\":\"erin\",\"email\":\"erin@acme.com\",\"password\":\"secret2\",\"role\":\"Admin\"}\n"
+                + "{not json}\n";
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("alice@acme.com"));
+        when(userRepository.findExistingUsernames(anyCollection())).thenReturn(List.of());
+        when(userRepository.findIdsByEmails(List.of("erin@acme.com"))).thenReturn(List.of(idAndEmail(13L, "erin@acme.com")));
+
+        // Act
+        UserImportService.ImportResult result = userImportService.importUsers(stream(ndjson), UserImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(1, result.imported());
+        assertEquals(2, result.rejected());
+        verify(emailService, times(1)).sendEmailAsync(eq("erin@acme.com"), anyString(), anyString());
+    }
+
+    private static UserRepository.IdAndEmail idAndEmail(Long id, String email) {
+        return new UserRepository.IdAndEmail() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
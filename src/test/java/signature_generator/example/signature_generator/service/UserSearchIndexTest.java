@@ -0,0 +1,95 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.auth.repository.UserDirectoryRepository;
+import signature_generator.example.signature_generator.auth.repository.UserDirectoryRepository.Entry;
+import signature_generator.example.signature_generator.auth.service.InvalidationBus;
+import signature_generator.example.signature_generator.auth.service.UserSearchIndex;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class UserSearchIndexTest {
+
+    private UserDirectoryRepository userDirectoryRepository;
+    private UserSearchIndex userSearchIndex;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userDirectoryRepository = mock(UserDirectoryRepository.class);
+        doAnswer(invocation -> {
+            Consumer<Entry> consumer = invocation.getArgument(0);
+            consumer.accept(new Entry(1L, "jsmith", "john.smith@acme.com", "Acme Corp"));
+            consumer.accept(new Entry(2L, "jdoe", "jane.doe@globex.com", "Globex"));
+            consumer.accept(new Entry(3L, "acmeadmin", "admin@acme.com", null));
+            return null;
+        }).when(userDirectoryRepository).scan(any(Consumer.class));
+        userSearchIndex = new UserSearchIndex(userDirectoryRepository);
+    }
+
+    @Test
+    void search_shouldMatchWordPrefixesInAnyField() {
+        // Arrange
+        ReflectionTestUtils.invokeMethod(userSearchIndex, "build");
+
+        // Act
+        List<UserSearchIndex.Hit> acme = userSearchIndex.search("acm", 10);
+        List<UserSearchIndex.Hit> smith = userSearchIndex.search("Smit", 10);
+        List<UserSearchIndex.Hit> both = userSearchIndex.search("j acme", 10);
+
+        // Assert
+        assertEquals(List.of(1L, 3L), acme.stream().map(UserSearchIndex.Hit::id).toList());
+        assertEquals(1, smith.size());
+        assertEquals("john.smith@acme.com", smith.get(0).email());
+        assertEquals("Acme Corp", smith.get(0).companyName());
+        assertEquals(List.of(1L), both.stream().map(UserSearchIndex.Hit::id).toList());
+        assertTrue(userSearchIndex.search("smyth", 10).isEmpty());
+        assertNull(userSearchIndex.search("acmeadmin", 10).get(0).companyName());
+    }
+
+    @Test
+    void search_shouldStopAtTheLimit() {
+        // Arrange
+        ReflectionTestUtils.invokeMethod(userSearchIndex, "build");
+
+        // Act
+        List<UserSearchIndex.Hit> hits = userSearchIndex.search("co", 1);
+
+        // Assert
+        assertEquals(1, hits.size());
+    }
+
+    @Test
+    void refresh_shouldApplyChangedAndRemovedUsers() {
+        // Arrange
+        ReflectionTestUtils.invokeMethod(userSearchIndex, "build");
+        when(userDirectoryRepository.findByIds(any())).thenReturn(List.of(
+                new Entry(1L, "jsmith", "john.smith@initech.com", "Initech"),
+                new Entry(4L, "pgibbons", "peter@initech.com", "Initech")));
+
+        // Act
+        userSearchIndex.onInvalidation(InvalidationBus.Event.user(1L));
+        userSearchIndex.onInvalidation(InvalidationBus.Event.user(3L));
+        userSearchIndex.onInvalidation(InvalidationBus.Event.user(4L));
+        userSearchIndex.refresh();
+
+        // Assert
+        assertEquals(List.of(1L, 4L), userSearchIndex.search("initech", 10).stream().map(UserSearchIndex.Hit::id).toList());
+        assertTrue(userSearchIndex.search("acme", 10).isEmpty());
+        assertEquals(List.of(2L), userSearchIndex.search("jd", 10).stream().map(UserSearchIndex.Hit::id).toList());
+    }
+
+    @Test
+    void search_shouldRejectQueriesItCannotServe() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userSearchIndex.search("a", 10));
+        assertThrows(IllegalStateException.class, () -> userSearchIndex.search("acme", 10));
+    }
+}
@@ -9,11 +9,27 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.auth.model.Company;
+import signature_generator.example.signature_generator.auth.model.ProfileRevision;
 import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.model.UserProfile;
+import signature_generator.example.signature_generator.auth.repository.PartialUpdateRepository;
+import signature_generator.example.signature_generator.auth.repository.UserProfileRepository;
 import signature_generator.example.signature_generator.auth.repository.UserRepository;
+import signature_generator.example.signature_generator.auth.service.CompanyService;
+import signature_generator.example.signature_generator.auth.service.InvalidationBus;
+import signature_generator.example.signature_generator.auth.service.ProfileHistoryService;
 import signature_generator.example.signature_generator.auth.service.UserService;
+import signature_generator.example.signature_generator.auth.util.SingleFlight;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -92,9 +108,8 @@ public class UserServiceTest {
         assertEquals(email, registeredUser.getEmail());
         assertEquals(phone, registeredUser.getPhone());
         assertEquals("Staff", registeredUser.getRole());
-        assertNotNull(registeredUser.getVerificationToken());
+        assertNull(registeredUser.getVerificationToken());
         assertFalse(registeredUser.isVerified());
-        assertTrue(registeredUser.getTokenExpiryTime() > System.currentTimeMillis());
 
         verify(userRepository, times(1)).findByUsername(username);
         verify(userRepository, times(1)).findByEmail(email);
@@ -161,22 +176,17 @@ public class UserServiceTest {
 
         Long userId = 1L;
         String newPhone = "9876543210";
-        User existingUser = new User();
-        existingUser.setId(userId);
-        existingUser.setUsername("testUser");
-        existingUser.setPhone("1234567890");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.updatePhone(userId, newPhone)).thenReturn(1);
 
         // Act
         boolean result = userService.updatePhoneNumber(userId, newPhone);
 
         // Assert
         assertTrue(result);
-        assertEquals(newPhone, existingUser.getPhone());
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).save(existingUser);
+        verify(userRepository, times(1)).updatePhone(userId, newPhone);
+        verify(userRepository, never()).findById(userId);
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -189,23 +199,81 @@ public class UserServiceTest {
         Long nonExistentUserId = 999L;
         String newPhone = "9876543210";
 
-        when(userRepository.findById(nonExistentUserId)).thenReturn(Optional.empty());
+        when(userRepository.updatePhone(nonExistentUserId, newPhone)).thenReturn(0);
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> {
             userService.updatePhoneNumber(nonExistentUserId, newPhone);
         });
 
-        verify(userRepository, times(1)).findById(nonExistentUserId);
+        verify(userRepository, times(1)).updatePhone(nonExistentUserId, newPhone);
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    public void testPatchUserAppliesOnlyProvidedFields() {
+        // Arrange
+        UserRepository userRepository = mock(UserRepository.class);
+        PartialUpdateRepository partialUpdateRepository = mock(PartialUpdateRepository.class);
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "partialUpdateRepository", partialUpdateRepository);
+
+        Map<String, String> changes = Map.of("phone", "5550001111");
+        when(partialUpdateRepository.patch(User.class, 1L, changes, 3L)).thenReturn(true);
+
+        // Act
+        userService.patchUser(1L, changes, 3L);
+
+        // Assert
+        verify(partialUpdateRepository, times(1)).patch(User.class, 1L, changes, 3L);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testPatchUserPublishesInvalidation() {
+        // Arrange
+        PartialUpdateRepository partialUpdateRepository = mock(PartialUpdateRepository.class);
+        InvalidationBus invalidationBus = mock(InvalidationBus.class);
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "partialUpdateRepository", partialUpdateRepository);
+        ReflectionTestUtils.setField(userService, "invalidationBus", invalidationBus);
+
+        Map<String, String> changes = Map.of("phone", "5550001111");
+        when(partialUpdateRepository.patch(User.class, 1L, changes, null)).thenReturn(true);
+
+        // Act
+        userService.patchUser(1L, changes, null);
+
+        // Assert
+        verify(invalidationBus, times(1)).publish(InvalidationBus.Event.user(1L));
+    }
+
+    @Test
+    public void testPatchUserRejectsUnknownFields() {
+        // Arrange
+        PartialUpdateRepository partialUpdateRepository = mock(PartialUpdateRepository.class);
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "partialUpdateRepository", partialUpdateRepository);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            userService.patchUser(1L, Map.of("role", "Admin"), null);
+        });
+
+        verifyNoInteractions(partialUpdateRepository);
+    }
+
     @Test
     public void testUpdateUserCompanyInfo() {
         // Arrange
         UserRepository userRepository = mock(UserRepository.class);
+        UserProfileRepository userProfileRepository = mock(UserProfileRepository.class);
+        CompanyService companyService = mock(CompanyService.class);
         UserService userService = new UserService();
         ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "userProfileRepository", userProfileRepository);
+        ReflectionTestUtils.setField(userService, "companyService", companyService);
 
         Long userId = 1L;
         String companyName = "Test Company";
@@ -214,33 +282,74 @@ public class UserServiceTest {
         String companySite = "www.testcompany.com";
         String userTitle = "Tester";
 
-        User existingUser = new User();
-        existingUser.setId(userId);
+        UserProfile existingProfile = new UserProfile();
+        existingProfile.setId(userId);
+        Company company = new Company(companyName);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userProfileRepository.findById(userId)).thenReturn(Optional.of(existingProfile));
+        company.setId(7L);
+        Company branded = new Company(companyName);
+        branded.setId(7L);
+        when(companyService.resolveCompany(companyName)).thenReturn(company);
+        when(companyService.updateBranding(7L, missionStatement, companyAddress, companySite)).thenReturn(branded);
+        when(userProfileRepository.save(any(UserProfile.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Act
-        User updatedUser = userService.updateUserCompanyInfo(userId, companyName, missionStatement, companyAddress, companySite, userTitle);
+        UserProfile updatedProfile = userService.updateUserCompanyInfo(userId, companyName, missionStatement, companyAddress, companySite, userTitle);
 
         // Assert
-        assertNotNull(updatedUser);
-        assertEquals(companyName, updatedUser.getCompanyName());
-        assertEquals(missionStatement, updatedUser.getMissionStatement());
-        assertEquals(companyAddress, updatedUser.getCompanyAddress());
-        assertEquals(companySite, updatedUser.getCompanySite());
-        assertEquals(userTitle, updatedUser.getUserTitle());
-
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).save(existingUser);
+        assertNotNull(updatedProfile);
+        assertSame(branded, updatedProfile.getCompany());
+        assertEquals(userTitle, updatedProfile.getUserTitle());
+
+        verify(userProfileRepository, times(1)).findById(userId);
+        verify(userProfileRepository, times(1)).save(existingProfile);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void testUpdateUserCompanyInfoCreatesProfileOnFirstSave() {
+        // Arrange
+        UserRepository userRepository = mock(UserRepository.class);
+        UserProfileRepository userProfileRepository = mock(UserProfileRepository.class);
+        CompanyService companyService = mock(CompanyService.class);
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "userProfileRepository", userProfileRepository);
+        ReflectionTestUtils.setField(userService, "companyService", companyService);
+
+        Long userId = 1L;
+        User userReference = new User();
+        userReference.setId(userId);
+
+        when(userProfileRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(companyService.resolveCompany("Test Company")).thenReturn(new Company("Test Company"));
+        when(userRepository.getReferenceById(userId)).thenReturn(userReference);
+        when(userProfileRepository.save(any(UserProfile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        UserProfile createdProfile = userService.updateUserCompanyInfo(userId, "Test Company", null, null, null, "Tester");
+
+        // Assert
+        assertSame(userReference, createdProfile.getUser());
+        assertEquals("Test Company", createdProfile.getCompany().getName());
+        assertEquals("Tester", createdProfile.getUserTitle());
+
+        verify(userRepository, never()).findById(userId);
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
     public void testUpdateUserCompanyInfoForNonExistentUser() {
         // Arrange
         UserRepository userRepository = mock(UserRepository.class);
+        UserProfileRepository userProfileRepository = mock(UserProfileRepository.class);
+        CompanyService companyService = mock(CompanyService.class);
         UserService userService = new UserService();
         ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "userProfileRepository", userProfileRepository);
+        ReflectionTestUtils.setField(userService, "companyService", companyService);
 
         Long nonExistentUserId = 999L;
         String companyName = "Test Company";
@@ -249,15 +358,47 @@ public class UserServiceTest {
         String companySite = "www.testcompany.com";
         String userTitle = "Tester";
 
-        when(userRepository.findById(nonExistentUserId)).thenReturn(Optional.empty());
+        when(userProfileRepository.findById(nonExistentUserId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(nonExistentUserId)).thenReturn(false);
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> {
             userService.updateUserCompanyInfo(nonExistentUserId, companyName, missionStatement, companyAddress, companySite, userTitle);
         });
 
-        verify(userRepository, times(1)).findById(nonExistentUserId);
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, times(1)).existsById(nonExistentUserId);
+        verify(userProfileRepository, never()).save(any(UserProfile.class));
+    }
+
+    @Test
+    public void testRollbackToRevisionWithoutPhoneKeepsCurrentPhoneInHistory() {
+        // Arrange
+        UserRepository userRepository = mock(UserRepository.class);
+        PartialUpdateRepository partialUpdateRepository = mock(PartialUpdateRepository.class);
+        CompanyService companyService = mock(CompanyService.class);
+        ProfileHistoryService profileHistoryService = mock(ProfileHistoryService.class);
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "partialUpdateRepository", partialUpdateRepository);
+        ReflectionTestUtils.setField(userService, "companyService", companyService);
+        ReflectionTestUtils.setField(userService, "profileHistoryService", profileHistoryService);
+
+        // Revision 1 predates the first phone number, so reconstruct reports it as unset
+        Map<String, String> revision = new HashMap<>();
+        revision.put("userTitle", "Tester");
+        revision.put("companyName", "Test Company");
+        revision.put("phone", null);
+        when(profileHistoryService.reconstruct(ProfileRevision.Subject.USER, 1L, 1)).thenReturn(revision);
+        when(companyService.resolveCompany("Test Company")).thenReturn(new Company("Test Company"));
+        when(partialUpdateRepository.patch(eq(UserProfile.class), eq(1L), anyMap(), isNull())).thenReturn(true);
+
+        // Act
+        userService.rollbackProfile(1L, 1);
+
+        // Assert
+        verify(userRepository, never()).updatePhone(anyLong(), anyString());
+        verify(profileHistoryService).record(ProfileRevision.Subject.USER, 1L,
+                Map.of("userTitle", "Tester", "companyName", "Test Company"));
     }
 
     @Test
@@ -277,4 +418,42 @@ public class UserServiceTest {
         assertEquals(expectedCount, actualCount);
         verify(userRepository, times(1)).count();
     }
+
+    @Test
+    public void testConcurrentFindByEmailSharesOneQuery() throws Exception {
+        // Arrange
+        UserRepository userRepository = mock(UserRepository.class);
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+
+        User user = new User("jdoe", "password", "jdoe@example.com", "1234567890", "Staff");
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(userRepository.findByEmail("jdoe@example.com")).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(5, TimeUnit.SECONDS);
+            return user;
+        });
+        SingleFlight<?, ?> emailLoads = (SingleFlight<?, ?>) ReflectionTestUtils.getField(userService, "emailLoads");
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<User> leader = executor.submit(() -> userService.findByEmail("jdoe@example.com"));
+            assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+            Future<User> follower = executor.submit(() -> userService.findByEmail("jdoe@example.com"));
+            while (emailLoads.calls() < 2) {
+                Thread.onSpinWait();
+            }
+            releaseQuery.countDown();
+
+            // Assert
+            assertSame(user, leader.get(5, TimeUnit.SECONDS));
+            assertSame(user, follower.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(userRepository, times(1)).findByEmail("jdoe@example.com");
+        assertEquals(1, emailLoads.coalesced());
+    }
 }
@@ -0,0 +1,47 @@
+package signature_generator.example.signature_generator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.auth.service.VerificationLinkService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerificationLinkServiceTest {
+
+    private VerificationLinkService verificationLinkService;
+
+    @BeforeEach
+    void setUp() {
+        verificationLinkService = new VerificationLinkService();
+        ReflectionTestUtils.setField(verificationLinkService, "secret", "test-verification-secret");
+        ReflectionTestUtils.setField(verificationLinkService, "baseUrl", "https://example.com/api/auth/verify");
+        ReflectionTestUtils.invokeMethod(verificationLinkService, "init");
+    }
+
+    @Test
+    void createLink_shouldCarrySignedUserIdThatParsesBack() {
+        // Act
+        String link = verificationLinkService.createLink(42L);
+        String token = link.substring(link.indexOf("token=") + 6);
+        VerificationLinkService.SignedVerification verification = verificationLinkService.parse(token);
+
+        // Assert
+        assertTrue(link.startsWith("https://example.com/api/auth/verify?token="));
+        assertTrue(verificationLinkService.isSignedToken(token));
+        assertEquals(42L, verification.userId());
+        assertFalse(verification.isExpired());
+        assertNotEquals(token, verificationLinkService.createToken(42L));
+    }
+
+    @Test
+    void parse_shouldRejectTamperedOrMalformedTokens() {
+        String token = verificationLinkService.createToken(42L);
+
+        assertNull(verificationLinkService.parse("43" + token.substring(2)));
+        assertNull(verificationLinkService.parse(token.substring(0, token.length() - 1)));
+        assertNull(verificationLinkService.parse("not-a-token"));
+        assertNull(verificationLinkService.parse("1.2.sig"));
+        assertFalse(verificationLinkService.isSignedToken("3f2504e0-4f89-11d3-9a0c-0305e82c3301"));
+    }
+}
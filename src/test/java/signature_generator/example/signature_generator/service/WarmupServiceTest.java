@@ -0,0 +1,104 @@
+package signature_generator.example.signature_generator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+import signature_generator.example.signature_generator.auth.model.User;
+import signature_generator.example.signature_generator.auth.service.JwtService;
+import signature_generator.example.signature_generator.auth.service.UserService;
+import signature_generator.example.signature_generator.auth.service.WarmupService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class WarmupServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void snapshotThenRun_shouldReloadTheHottestUsersAndWarmTheTokenPath() {
+        // Arrange
+        Path snapshot = tempDir.resolve("hot-users.dat");
+        WarmupService previous = warmupService(mock(UserService.class), mock(JwtService.class), snapshot);
+        for (int i = 0; i < 3; i++) {
+            previous.recordAccess(1L);
+        }
+        previous.recordAccess(2L);
+        previous.recordAccess(3L);
+        previous.recordAccess(3L);
+        previous.snapshot();
+
+        UserService userService = mock(UserService.class);
+        JwtService jwtService = mock(JwtService.class);
+        when(userService.findById(anyLong())).thenAnswer(invocation -> user(invocation.getArgument(0)));
+        WarmupService next = warmupService(userService, jwtService, snapshot);
+
+        // Act
+        next.run(null);
+
+        // Assert
+        assertTrue(Files.exists(snapshot));
+        verify(userService).findById(1L);
+        verify(userService).findById(3L);
+        verify(userService, never()).findById(2L);
+        verify(jwtService).warmUp(10);
+    }
+
+    @Test
+    void run_shouldStillWarmUpWithoutASnapshot() {
+        UserService userService = mock(UserService.class);
+        JwtService jwtService = mock(JwtService.class);
+        WarmupService warmupService = warmupService(userService, jwtService, tempDir.resolve("missing.dat"));
+
+        warmupService.run(null);
+
+        verifyNoInteractions(userService);
+        verify(jwtService).warmUp(10);
+    }
+
+    @Test
+    void run_shouldTreatACorruptSnapshotAsMissing() throws Exception {
+        Path snapshot = tempDir.resolve("corrupt.dat");
+        Files.write(snapshot, new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xfe, 1, 2, 3});
+        UserService userService = mock(UserService.class);
+        JwtService jwtService = mock(JwtService.class);
+        WarmupService warmupService = warmupService(userService, jwtService, snapshot);
+
+        warmupService.run(null);
+
+        verifyNoInteractions(userService);
+        verify(jwtService).warmUp(10);
+    }
+
+    @Test
+    void run_shouldDoNothingWhenDisabled() {
+        JwtService jwtService = mock(JwtService.class);
+        WarmupService warmupService = warmupService(mock(UserService.class), jwtService, tempDir.resolve("x.dat"));
+        ReflectionTestUtils.setField(warmupService, "enabled", false);
+
+        warmupService.run(null);
+
+        verifyNoInteractions(jwtService);
+    }
+
+    private static WarmupService warmupService(UserService userService, JwtService jwtService, Path snapshot) {
+        WarmupService warmupService = new WarmupService(userService, jwtService, new ObjectMapper(), mock(Environment.class));
+        ReflectionTestUtils.setField(warmupService, "snapshotPath", snapshot.toString());
+        ReflectionTestUtils.setField(warmupService, "hotUsers", 2);
+        ReflectionTestUtils.setField(warmupService, "iterations", 10);
+        return warmupService;
+    }
+
+    private static User user(Long id) {
+        User user = new User("user" + id, "secret", "user" + id + "@example.com", "555", "Staff");
+        user.setId(id);
+        return user;
+    }
+}